@@ -0,0 +1,49 @@
+package cl.kibernum.apirest.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import cl.kibernum.apirest.security.auth.RoleAuthorities;
+import cl.kibernum.apirest.security.domain.Role;
+
+/**
+ * Conversión de roles del token a authorities en RoleAuthorities (se ejecuta al verificar cada token nuevo).
+ * userRole/adminRoles parten del claim "roles" (tokens anteriores a rmask); adminMask parte del claim "rmask".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorityMappingBenchmark {
+    private final List<String> userRoles = List.of("ROLE_USER");
+    private final List<String> adminRoles = List.of("ROLE_USER", "ROLE_ADMIN");
+    private final int adminMask = RoleAuthorities.mask(List.of(Role.ROLE_USER, Role.ROLE_ADMIN));
+
+    @Benchmark
+    public List<GrantedAuthority> userRole() {
+        return RoleAuthorities.forNames(userRoles);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> adminRoles() {
+        return RoleAuthorities.forNames(adminRoles);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> adminMask() {
+        return RoleAuthorities.forMask(adminMask);
+    }
+}
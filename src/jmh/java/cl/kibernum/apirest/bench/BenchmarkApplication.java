@@ -0,0 +1,33 @@
+package cl.kibernum.apirest.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import cl.kibernum.apirest.ApirestApplication;
+import cl.kibernum.apirest.dto.ProductoDto;
+
+/**
+ * Arranque de la aplicación para benchmarks: puerto aleatorio, base H2 propia y logs reducidos.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() { }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(ApirestApplication.class).run(args.toArray(String[]::new));
+    }
+
+    static ProductoDto producto(String nombre) {
+        return new ProductoDto(nombre, "Producto de benchmark", 100, 1990.0);
+    }
+}
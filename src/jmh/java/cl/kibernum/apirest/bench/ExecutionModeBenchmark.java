@@ -0,0 +1,91 @@
+package cl.kibernum.apirest.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import cl.kibernum.apirest.services.ProductoServiceImpl;
+
+/**
+ * Throughput HTTP con muchos clientes concurrentes, comparando hilos de plataforma y virtuales
+ * (spring.threads.virtual.enabled). Cada request lista productos, por lo que pasa por JPA/JDBC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(64)
+@Fork(1)
+public class ExecutionModeBenchmark {
+    @Param({"false", "true"})
+    public String virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest listRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start("--spring.threads.virtual.enabled=" + virtualThreads);
+        ProductoServiceImpl productoService = context.getBean(ProductoServiceImpl.class);
+        for (int i = 0; i < 200; i++) {
+            productoService.create(BenchmarkApplication.producto("mode-" + i));
+        }
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String base = "http://localhost:" + port + "/api/v1";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String credentials = "{\"username\":\"bench\",\"password\":\"benchpass\"}";
+        send(HttpRequest.newBuilder(URI.create(base + "/auth/register"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "{\"username\":\"bench\",\"nombre\":\"b\",\"apellido\":\"b\",\"email\":\"bench@bench.cl\",\"password\":\"benchpass\"}"))
+            .build());
+        String login = send(HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(credentials))
+            .build());
+        String token = login.replaceAll(".*\"accessToken\":\"([^\"]+)\".*", "$1");
+        listRequest = HttpRequest.newBuilder(URI.create(base + "/productos?limit=50"))
+            .header("Authorization", "Bearer " + token)
+            .GET()
+            .build();
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Setup request failed: " + response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listProductos() throws Exception {
+        return client.send(listRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,133 @@
+package cl.kibernum.apirest.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.SignedJWT;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import cl.kibernum.apirest.security.domain.Role;
+import cl.kibernum.apirest.security.domain.UserAccount;
+import cl.kibernum.apirest.security.jwt.JwtProperties;
+import cl.kibernum.apirest.security.jwt.JwtService;
+import cl.kibernum.apirest.security.jwt.TokenValidation;
+
+/**
+ * Emisión y validación de tokens en JwtService.
+ * - parseAndValidateCached: camino caliente del filtro (token repetido, caché de tokens verificados).
+ * - parseAndValidateUncached: verificación completa con firmador/verificador compartidos.
+ * - verifyWithNewVerifierPerCall: referencia del comportamiento anterior (un MACVerifier por llamada).
+ * - validateGarbage / validateBadSignature: rechazo de tokens basura (chequeo estructural) y con firma ajena.
+ * - generateAccessTokenEs256 / parseAndValidateUncachedEs256: firma y verificación ECDSA P-256 (llave
+ *   generada en un directorio temporal); el caché de tokens verificados evita este costo en tokens repetidos.
+ * Para comparar asignaciones: -Djmh.args="JwtServiceBenchmark -prof gc".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final String SECRET = "benchmarkbenchmarkbenchmarkbenchmark";
+
+    private JwtService cachedService;
+    private JwtService uncachedService;
+    private JwtService es256Service;
+    private JwtService es256UncachedService;
+    private UserAccount user;
+    private String token;
+    private String badSignatureToken;
+    private String es256Token;
+
+    @Setup
+    public void setUp() throws IOException {
+        cachedService = new JwtService(properties(4096), new SimpleMeterRegistry());
+        uncachedService = new JwtService(properties(0), new SimpleMeterRegistry());
+        String keysDir = Files.createTempDirectory("jwt-keys").toString();
+        es256Service = new JwtService(es256Properties(keysDir, 4096), new SimpleMeterRegistry());
+        es256UncachedService = new JwtService(es256Properties(keysDir, 0), new SimpleMeterRegistry());
+        user = new UserAccount();
+        user.setUsername("bench");
+        user.setRoles(Set.of(Role.ROLE_USER, Role.ROLE_ADMIN));
+        token = cachedService.generateAccessToken(user);
+        badSignatureToken = token.substring(0, token.lastIndexOf('.') + 1) + "c2lnbmF0dXJhLWZhbHNhLXBhcmEtZWwtYmVuY2htYXJr";
+        es256Token = es256Service.generateAccessToken(user);
+    }
+
+    private static JwtProperties properties(int verifiedCacheSize) {
+        JwtProperties props = new JwtProperties();
+        props.getJwt().setSecret(SECRET);
+        props.getJwt().setVerifiedCacheSize(verifiedCacheSize);
+        return props;
+    }
+
+    private static JwtProperties es256Properties(String keysDir, int verifiedCacheSize) {
+        JwtProperties props = properties(verifiedCacheSize);
+        props.getJwt().setAlgorithm("ES256");
+        props.getJwt().setKeysDir(keysDir);
+        props.getJwt().setGenerateKeys(true);
+        return props;
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return cachedService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public JwtService.JwtPayload parseAndValidateCached() {
+        return cachedService.parseAndValidate(token);
+    }
+
+    @Benchmark
+    public JwtService.JwtPayload parseAndValidateUncached() {
+        return uncachedService.parseAndValidate(token);
+    }
+
+    @Benchmark
+    public TokenValidation validateGarbage() {
+        return uncachedService.validate("not-a-jwt-token-from-a-bot");
+    }
+
+    @Benchmark
+    public TokenValidation validateBadSignature() {
+        return uncachedService.validate(badSignatureToken);
+    }
+
+    @Benchmark
+    public String generateAccessTokenEs256() {
+        return es256Service.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public JwtService.JwtPayload parseAndValidateUncachedEs256() {
+        return es256UncachedService.parseAndValidate(es256Token);
+    }
+
+    @Benchmark
+    public boolean verifyWithNewVerifierPerCall() throws Exception {
+        return verifyLegacy(token);
+    }
+
+    private static boolean verifyLegacy(String token) throws java.text.ParseException, JOSEException {
+        SignedJWT jwt = SignedJWT.parse(token);
+        return jwt.verify(new MACVerifier(SECRET)) && jwt.getJWTClaimsSet().getSubject() != null;
+    }
+}
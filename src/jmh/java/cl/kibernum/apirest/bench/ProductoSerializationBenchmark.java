@@ -0,0 +1,62 @@
+package cl.kibernum.apirest.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.kibernum.apirest.dto.ProductoView;
+import cl.kibernum.apirest.entities.Producto;
+
+/**
+ * Serialización Jackson de listas de Producto, como en las respuestas de listado:
+ * la entidad completa frente a la proyección ProductoView que usan hoy los listados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductoSerializationBenchmark {
+    @Param({"50", "500"})
+    public int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Producto> productos;
+    private List<ProductoView> views;
+
+    @Setup
+    public void setUp() {
+        productos = new ArrayList<>(size);
+        views = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            productos.add(new Producto("Producto " + i, "Descripción del producto " + i, i % 100, 990.0 + i));
+            views.add(new ProductoView(i + 1, "Producto " + i, "Descripción del producto " + i, i % 100, 990.0 + i,
+                    true, 0, i + 1));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return objectMapper.writeValueAsBytes(productos);
+    }
+
+    @Benchmark
+    public byte[] serializeViews() throws Exception {
+        return objectMapper.writeValueAsBytes(views);
+    }
+}
@@ -0,0 +1,76 @@
+package cl.kibernum.apirest.bench;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import cl.kibernum.apirest.dto.CursorPage;
+import cl.kibernum.apirest.dto.ProductoView;
+import cl.kibernum.apirest.entities.Producto;
+import cl.kibernum.apirest.services.ProductoServiceImpl;
+
+/**
+ * CRUD de ProductoServiceImpl contra H2 embebido, con el contexto Spring completo.
+ * El parámetro cache compara getById con y sin el caché de productos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductoServiceBenchmark {
+    private static final int SEED_PRODUCTS = 1_000;
+
+    @Param({"true", "false"})
+    public String cache;
+
+    private ConfigurableApplicationContext context;
+    private ProductoServiceImpl productoService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("--catalog.cache.enabled=" + cache);
+        productoService = context.getBean(ProductoServiceImpl.class);
+        for (int i = 0; i < SEED_PRODUCTS; i++) {
+            productoService.create(BenchmarkApplication.producto("seed-" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Producto getById() {
+        return productoService.getById(ThreadLocalRandom.current().nextInt(1, SEED_PRODUCTS + 1)).orElseThrow();
+    }
+
+    @Benchmark
+    public CursorPage<ProductoView> findPage() {
+        return productoService.findPage(null, 50);
+    }
+
+    @Benchmark
+    public Producto createAndUpdate() {
+        Producto created = productoService.create(BenchmarkApplication.producto("bench-" + sequence.incrementAndGet()));
+        return productoService.update(created.getId(), BenchmarkApplication.producto("bench-" + sequence.incrementAndGet()));
+    }
+}
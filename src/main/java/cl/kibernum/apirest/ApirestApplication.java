@@ -2,8 +2,10 @@ package cl.kibernum.apirest;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ApirestApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,78 @@
+package cl.kibernum.apirest.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+
+@Component
+@ConfigurationProperties(prefix = "catalog")
+@Validated
+public class CatalogProperties {
+    // Subgrupo de propiedades para el caché de productos por id.
+    private Cache cache = new Cache();
+    // Subgrupo de propiedades para cargas masivas de productos.
+    @Valid
+    private Batch batch = new Batch();
+    // Subgrupo de propiedades para las reservas de stock en memoria.
+    private Reservations reservations = new Reservations();
+
+    public Cache getCache() { return cache; }
+    public Batch getBatch() { return batch; }
+    public Reservations getReservations() { return reservations; }
+
+    /**
+     * Subgrupo de propiedades para el caché en memoria de productos.
+     */
+    public static class Cache {
+        // Habilita/deshabilita el caché de lectura de productos.
+        private boolean enabled = true;
+        // Cantidad máxima de productos en caché.
+        private int maxSize = 10_000;
+        // Tiempo de vida de cada entrada desde que se carga.
+        private Duration ttl = Duration.ofMinutes(5);
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getMaxSize() { return maxSize; }
+        public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+        public Duration getTtl() { return ttl; }
+        public void setTtl(Duration ttl) { this.ttl = ttl; }
+    }
+
+    /**
+     * Subgrupo de propiedades para el endpoint de carga masiva (POST /api/v1/productos/batch).
+     */
+    public static class Batch {
+        // Productos por transacción: una consulta de duplicados y un commit por bloque.
+        @Min(1)
+        private int chunkSize = 500;
+        // Máximo de productos aceptados en una sola request.
+        @Min(1)
+        private int maxItems = 50_000;
+
+        public int getChunkSize() { return chunkSize; }
+        public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+        public int getMaxItems() { return maxItems; }
+        public void setMaxItems(int maxItems) { this.maxItems = maxItems; }
+    }
+
+    /**
+     * Subgrupo de propiedades para el ledger de reservas de stock (POST /api/v1/productos/{id}/reservas).
+     */
+    public static class Reservations {
+        // Tiempo que una reserva retiene stock antes de liberarse sola si no se confirma.
+        private Duration ttl = Duration.ofMinutes(10);
+        // Cantidad de locks entre los que se reparten los productos (se redondea a potencia de 2).
+        private int stripes = 64;
+
+        public Duration getTtl() { return ttl; }
+        public void setTtl(Duration ttl) { this.ttl = ttl; }
+        public int getStripes() { return stripes; }
+        public void setStripes(int stripes) { this.stripes = stripes; }
+    }
+}
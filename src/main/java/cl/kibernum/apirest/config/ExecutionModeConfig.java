@@ -0,0 +1,47 @@
+package cl.kibernum.apirest.config;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Modo de ejecución de las requests: hilos de plataforma (pool de Tomcat) o hilos virtuales de Java 21.
+ *
+ * El modo se elige con spring.threads.virtual.enabled (variable APP_VIRTUAL_THREADS). Con hilos virtuales
+ * Tomcat atiende cada request en un hilo virtual y el trabajo JPA/JDBC corre en ese mismo hilo.
+ * - La concurrencia hacia la base la limita el pool de Hikari: las requests esperan una conexión en
+ *   Hikari (sin bloquear hilos portadores) en vez de entrar todas al driver, cuyo código synchronized
+ *   fija (pin) el hilo virtual a su portador.
+ * - BCrypt sigue en su pool de plataforma (PasswordHashingExecutor), porque es trabajo de CPU.
+ * - El código propio no usa synchronized (se usan ReentrantLock, StampedLock y atómicos). Lo que aún puede
+ *   fijar un hilo virtual es código de terceros: el driver embebido de H2, acotado por el pool de Hikari.
+ *   El perfil Maven virtual-threads corre con -Djdk.tracePinnedThreads=short para detectarlo.
+ */
+@Configuration
+public class ExecutionModeConfig {
+    private static final Logger log = LoggerFactory.getLogger(ExecutionModeConfig.class);
+
+    private final Environment environment;
+    private final DataSource dataSource;
+
+    public ExecutionModeConfig(Environment environment, DataSource dataSource) {
+        this.environment = environment;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logExecutionMode() {
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        String pool = dataSource instanceof HikariDataSource hikari
+                ? String.valueOf(hikari.getMaximumPoolSize()) : "n/a";
+        log.info("Request execution mode: {} threads (JDBC pool max size: {})", virtual ? "virtual" : "platform", pool);
+    }
+}
@@ -0,0 +1,60 @@
+package cl.kibernum.apirest.config;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Mide cuánto tarda Jackson en escribir cada respuesta JSON (http.server.serialization, tag type = clase del cuerpo).
+ *
+ * Reemplaza el MappingJackson2HttpMessageConverter de Spring Boot por uno con el mismo ObjectMapper.
+ * El Timer de cada clase se crea la primera vez que se serializa y queda en un ClassValue, así las
+ * siguientes respuestas no buscan en el registro ni crean tags. La medición incluye la escritura al
+ * buffer de la respuesta. Las respuestas en streaming (export NDJSON) no pasan por aquí.
+ */
+@Configuration
+public class SerializationMetricsConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+            MeterRegistry registry) {
+        return new TimedJackson2HttpMessageConverter(objectMapper, registry);
+    }
+
+    static final class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+        private final ClassValue<Timer> timers;
+
+        TimedJackson2HttpMessageConverter(ObjectMapper objectMapper, MeterRegistry registry) {
+            super(objectMapper);
+            this.timers = new ClassValue<>() {
+                @Override
+                protected Timer computeValue(Class<?> type) {
+                    return Timer.builder("http.server.serialization")
+                            .description("Escritura JSON del cuerpo de la respuesta")
+                            .tag("type", type.getSimpleName())
+                            .register(registry);
+                }
+            };
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            long start = System.nanoTime();
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                timers.get(object.getClass()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -2,63 +2,244 @@ package cl.kibernum.apirest.controllers;
 
 import org.springframework.web.bind.annotation.RestController;
 
+import cl.kibernum.apirest.dto.BatchResult;
+import cl.kibernum.apirest.dto.ChangesPage;
+import cl.kibernum.apirest.dto.CursorPage;
+import cl.kibernum.apirest.dto.ImportEvent;
 import cl.kibernum.apirest.dto.ProductoDto;
+import cl.kibernum.apirest.dto.ProductoFilter;
+import cl.kibernum.apirest.dto.ProductoView;
+import cl.kibernum.apirest.dto.ReservaDto;
+import cl.kibernum.apirest.dto.SearchResult;
+import cl.kibernum.apirest.dto.StockDisponibleDto;
+import cl.kibernum.apirest.dto.StockDeltaDto;
 import cl.kibernum.apirest.entities.Producto;
 import cl.kibernum.apirest.exception.ResourceNotFoundException;
+import cl.kibernum.apirest.services.ProductoBatchService;
+import cl.kibernum.apirest.services.ProductoImportService;
 import cl.kibernum.apirest.services.ProductoServiceImpl;
+import cl.kibernum.apirest.services.StockReservationLedger;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @RestController
 @RequestMapping("/api/v1/productos")
 public class ProductoController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     private ProductoServiceImpl productoService;
+    private final ProductoBatchService productoBatchService;
+    private final ProductoImportService productoImportService;
+    private final StockReservationLedger reservationLedger;
+    private final ObjectMapper objectMapper;
 
-    public ProductoController(ProductoServiceImpl productoService) {
+    public ProductoController(ProductoServiceImpl productoService, ProductoBatchService productoBatchService,
+            ProductoImportService productoImportService, StockReservationLedger reservationLedger,
+            ObjectMapper objectMapper) {
         this.productoService = productoService;
+        this.productoBatchService = productoBatchService;
+        this.productoImportService = productoImportService;
+        this.reservationLedger = reservationLedger;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
     public ResponseEntity<Producto> createProducto(@RequestBody ProductoDto productoDto) {
         Producto createdProducto = productoService.create(productoDto);
-        URI location = URI.create(String.format("/api/v1/productos/%", createdProducto.getId()));
+        URI location = URI.create(String.format("/api/v1/productos/%d", createdProducto.getId()));
        // return new ResponseEntity<Producto>(createdProducto, HttpStatus.CREATED);
-       return ResponseEntity.created(location).body(createdProducto);
+       return ResponseEntity.created(location).eTag(etag(createdProducto)).body(createdProducto);
+    }
+
+    // Crea o actualiza por nombre; el resultado de cada producto se informa en la respuesta.
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult> upsertProductos(@RequestBody List<ProductoDto> productos) {
+        return ResponseEntity.ok(productoBatchService.upsertAll(productos));
     }
 
+    // Importación de archivos grandes: el cuerpo se lee línea a línea y el avance se informa como NDJSON
+    // (una línea por fila con error y una por bloque confirmado) mientras la carga sigue en curso.
+    @PostMapping(value = "/import", consumes = {TEXT_CSV_VALUE, APPLICATION_NDJSON_VALUE}, produces = APPLICATION_NDJSON_VALUE)
+    public void importProductos(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProductoImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                ? ProductoImportService.Format.CSV : ProductoImportService.Format.NDJSON;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            productoImportService.importProductos(reader, format, event -> {
+                try {
+                    objectMapper.writeValue(generator, event);
+                    generator.writeRaw('\n');
+                    if (event.getType() != ImportEvent.Type.ERROR) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // Filtros opcionales por rango (inclusive): minPrecio, maxPrecio y minStock.
     @GetMapping
-    public ResponseEntity<List<Producto>> getAllProducts() {
-        return ResponseEntity.ok(productoService.getAll());
+    public ResponseEntity<CursorPage<ProductoView>> getAllProducts(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "0") int limit, @RequestParam(required = false) Double minPrecio,
+            @RequestParam(required = false) Double maxPrecio, @RequestParam(required = false) Integer minStock) {
+        return ResponseEntity.ok(productoService.findPage(after, limit, new ProductoFilter(minPrecio, maxPrecio, minStock)));
     }
     
     @GetMapping("/activos")
-    public ResponseEntity<List<Producto>> getAllProductsActive() {
-        return ResponseEntity.ok(productoService.findAllByActiveTrue());
+    public ResponseEntity<CursorPage<ProductoView>> getAllProductsActive(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "0") int limit, @RequestParam(required = false) Double minPrecio,
+            @RequestParam(required = false) Double maxPrecio, @RequestParam(required = false) Integer minStock) {
+        return ResponseEntity.ok(productoService.findActivePage(after, limit, new ProductoFilter(minPrecio, maxPrecio, minStock)));
+    }
+
+    // Búsqueda por palabras en nombre y descripcion, sin distinguir tildes ni mayúsculas (ej. ?q=cafe molido).
+    @GetMapping("/search")
+    public ResponseEntity<SearchResult<ProductoView>> searchProductos(@RequestParam String q,
+            @RequestParam(defaultValue = "0") int limit) {
+        return ResponseEntity.ok(productoService.search(q, limit));
+    }
+
+    // Sincronización incremental: el cliente guarda "revision" y la envía como since en la próxima consulta.
+    // Cuando no quedan páginas, el ETag identifica la revisión del catálogo y un If-None-Match igual recibe 304.
+    @GetMapping("/changes")
+    public ResponseEntity<ChangesPage<ProductoView>> getChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "0") int limit) {
+        ChangesPage<ProductoView> changes = productoService.findChanges(since, limit);
+        if (changes.isHasMore()) {
+            return ResponseEntity.ok(changes);
+        }
+        return ResponseEntity.ok().eTag("\"rev-" + changes.getRevision() + "\"").body(changes);
     }
 
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public void exportProductos(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        // Sin flush por fila: los buffers de Jackson y Tomcat se envían al llenarse, así el primer bloque
+        // sale antes de que termine la consulta y la memoria usada no depende del tamaño del catálogo.
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            productoService.streamAll(producto -> {
+                try {
+                    writer.writeValue(generator, producto);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // Con ETag en la respuesta, Spring contesta 304 ante un If-None-Match igual sin serializar el cuerpo.
     @GetMapping("/{id}")
     public ResponseEntity<Producto> getProduct(@PathVariable int id) {
         Producto producto = productoService.getById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
-        return ResponseEntity.ok(producto);
+        return ResponseEntity.ok().eTag(etag(producto)).body(producto);
     
     }
     
+    // If-Match opcional: si no coincide con la versión actual responde 412 y no modifica el producto.
     @PutMapping("/{id}")
-    public ResponseEntity<Producto> updateProduct(@PathVariable int id, @Valid @RequestBody ProductoDto productoDto) {
-        return ResponseEntity.ok(productoService.update(id, productoDto));
+    public ResponseEntity<Producto> updateProduct(@PathVariable int id, @Valid @RequestBody ProductoDto productoDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Producto updated = productoService.update(id, productoDto, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(etag(updated)).body(updated);
+    }
+
+    private static String etag(Producto producto) {
+        return "\"" + producto.getVersion() + "\"";
+    }
+
+    // null = sin condición (header ausente o "*"). Un valor que no es un ETag fuerte de producto nunca coincide.
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            try {
+                return Long.parseLong(value.substring(1, value.length() - 1));
+            } catch (NumberFormatException e) {
+                return -1L;
+            }
+        }
+        return -1L;
+    }
+
+    // Ajuste de stock por delta (ej. {"delta": -2}); 409 si el stock quedaría negativo.
+    @PatchMapping("/{id}/stock")
+    public ResponseEntity<Void> adjustStock(@PathVariable int id, @RequestBody StockDeltaDto stockDelta) {
+        productoService.adjustStock(id, stockDelta.getDelta());
+        return ResponseEntity.noContent().build();
+    }
+
+    // Ajuste por lote (ej. [{"id": 1, "delta": -2}, ...]): se aplican todos o ninguno.
+    @PatchMapping("/stock")
+    public ResponseEntity<Void> adjustStock(@RequestBody List<StockDeltaDto> stockDeltas) {
+        productoService.adjustStock(stockDeltas);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Reservas en memoria: retienen stock por catalog.reservations.ttl hasta confirmarse o liberarse.
+    @PostMapping("/{id}/reservas")
+    public ResponseEntity<ReservaDto> reserveStock(@PathVariable int id, @RequestBody ReservaDto reserva) {
+        ReservaDto created = reservationLedger.reserve(id, reserva.getCantidad());
+        return ResponseEntity.created(URI.create("/api/v1/productos/reservas/" + created.getId())).body(created);
+    }
+
+    @PostMapping("/reservas/{reservaId}/confirmar")
+    public ResponseEntity<Void> confirmReserva(@PathVariable String reservaId) {
+        reservationLedger.confirm(reservaId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/reservas/{reservaId}")
+    public ResponseEntity<Void> releaseReserva(@PathVariable String reservaId) {
+        reservationLedger.release(reservaId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/disponible")
+    public ResponseEntity<StockDisponibleDto> getDisponible(@PathVariable int id) {
+        return ResponseEntity.ok(reservationLedger.availability(id));
     }
 
     @PatchMapping("/{id}")
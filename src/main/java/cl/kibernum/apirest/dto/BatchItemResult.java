@@ -0,0 +1,52 @@
+package cl.kibernum.apirest.dto;
+
+public class BatchItemResult {
+    public enum Status { CREATED, UPDATED, ERROR }
+
+    // Posición del producto dentro de la request.
+    private final int index;
+    private final String nombre;
+    private final Status status;
+    private final Integer id;
+    private final String error;
+
+    private BatchItemResult(int index, String nombre, Status status, Integer id, String error) {
+        this.index = index;
+        this.nombre = nombre;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static BatchItemResult created(int index, String nombre, int id) {
+        return new BatchItemResult(index, nombre, Status.CREATED, id, null);
+    }
+
+    public static BatchItemResult updated(int index, String nombre, int id) {
+        return new BatchItemResult(index, nombre, Status.UPDATED, id, null);
+    }
+
+    public static BatchItemResult error(int index, String nombre, String error) {
+        return new BatchItemResult(index, nombre, Status.ERROR, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,42 @@
+package cl.kibernum.apirest.dto;
+
+import java.util.List;
+
+public class BatchResult {
+    private final int created;
+    private final int updated;
+    private final int failed;
+    private final List<BatchItemResult> items;
+
+    public BatchResult(List<BatchItemResult> items) {
+        int created = 0;
+        int updated = 0;
+        for (BatchItemResult item : items) {
+            switch (item.getStatus()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case ERROR -> { }
+            }
+        }
+        this.created = created;
+        this.updated = updated;
+        this.failed = items.size() - created - updated;
+        this.items = items;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BatchItemResult> getItems() {
+        return items;
+    }
+}
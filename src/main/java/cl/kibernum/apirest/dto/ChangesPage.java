@@ -0,0 +1,29 @@
+package cl.kibernum.apirest.dto;
+
+import java.util.List;
+
+public class ChangesPage<T> {
+    private final List<T> items;
+    // Valor para el próximo since: incluye todo lo entregado en esta respuesta.
+    private final long revision;
+    // true si quedan cambios hasta la revisión actual; se debe pedir de nuevo con since=revision.
+    private final boolean hasMore;
+
+    public ChangesPage(List<T> items, long revision, boolean hasMore) {
+        this.items = items;
+        this.revision = revision;
+        this.hasMore = hasMore;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
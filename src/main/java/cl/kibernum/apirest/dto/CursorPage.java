@@ -0,0 +1,22 @@
+package cl.kibernum.apirest.dto;
+
+import java.util.List;
+
+public class CursorPage<T> {
+    private final List<T> items;
+    // Cursor opaco para pedir la página siguiente (after=<nextCursor>). Null si no hay más resultados.
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
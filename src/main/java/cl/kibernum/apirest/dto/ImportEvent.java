@@ -0,0 +1,76 @@
+package cl.kibernum.apirest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Línea de la respuesta NDJSON de una importación: error de una fila, avance por bloque o resumen final.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEvent {
+    public enum Type { ERROR, PROGRESS, DONE }
+
+    private final Type type;
+    private final Long line;
+    private final String nombre;
+    private final String error;
+    private final Long processed;
+    private final Long created;
+    private final Long updated;
+    private final Long failed;
+
+    private ImportEvent(Type type, Long line, String nombre, String error,
+            Long processed, Long created, Long updated, Long failed) {
+        this.type = type;
+        this.line = line;
+        this.nombre = nombre;
+        this.error = error;
+        this.processed = processed;
+        this.created = created;
+        this.updated = updated;
+        this.failed = failed;
+    }
+
+    public static ImportEvent error(long line, String nombre, String error) {
+        return new ImportEvent(Type.ERROR, line, nombre, error, null, null, null, null);
+    }
+
+    public static ImportEvent progress(long processed, long created, long updated, long failed) {
+        return new ImportEvent(Type.PROGRESS, null, null, null, processed, created, updated, failed);
+    }
+
+    public static ImportEvent done(long processed, long created, long updated, long failed) {
+        return new ImportEvent(Type.DONE, null, null, null, processed, created, updated, failed);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getLine() {
+        return line;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Long getProcessed() {
+        return processed;
+    }
+
+    public Long getCreated() {
+        return created;
+    }
+
+    public Long getUpdated() {
+        return updated;
+    }
+
+    public Long getFailed() {
+        return failed;
+    }
+}
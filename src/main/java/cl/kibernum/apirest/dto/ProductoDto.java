@@ -18,6 +18,15 @@ public class ProductoDto {
     private double precio;
     @NotNull
     private boolean active = true;
+
+    public ProductoDto() { }
+
+    public ProductoDto(String nombre, String descripcion, int stock, double precio) {
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.stock = stock;
+        this.precio = precio;
+    }
     
     public String getNombre() {
         return nombre;
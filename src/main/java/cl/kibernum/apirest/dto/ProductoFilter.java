@@ -0,0 +1,50 @@
+package cl.kibernum.apirest.dto;
+
+/**
+ * Filtros opcionales del listado de productos (extremos inclusive); null significa sin filtro.
+ */
+public class ProductoFilter {
+    public static final ProductoFilter NONE = new ProductoFilter(null, null, null);
+
+    private final Double minPrecio;
+    private final Double maxPrecio;
+    private final Integer minStock;
+
+    public ProductoFilter(Double minPrecio, Double maxPrecio, Integer minStock) {
+        this.minPrecio = minPrecio;
+        this.maxPrecio = maxPrecio;
+        this.minStock = minStock;
+    }
+
+    public boolean isEmpty() {
+        return minPrecio == null && maxPrecio == null && minStock == null;
+    }
+
+    public double minPrecioOrMin() {
+        return minPrecio == null ? -Double.MAX_VALUE : minPrecio;
+    }
+
+    public double maxPrecioOrMax() {
+        return maxPrecio == null ? Double.MAX_VALUE : maxPrecio;
+    }
+
+    public int minStockOrMin() {
+        return minStock == null ? Integer.MIN_VALUE : minStock;
+    }
+
+    public boolean matches(double precio, int stock) {
+        return precio >= minPrecioOrMin() && precio <= maxPrecioOrMax() && stock >= minStockOrMin();
+    }
+
+    public Double getMinPrecio() {
+        return minPrecio;
+    }
+
+    public Double getMaxPrecio() {
+        return maxPrecio;
+    }
+
+    public Integer getMinStock() {
+        return minStock;
+    }
+}
@@ -0,0 +1,58 @@
+package cl.kibernum.apirest.dto;
+
+// Proyección de solo lectura de Producto para listados: se arma con "select new" en ProductoRepository,
+// así la consulta trae solo estas columnas y Hibernate no crea entidades administradas ni snapshots.
+public class ProductoView {
+    private final int id;
+    private final String nombre;
+    private final String descripcion;
+    private final int stock;
+    private final double precio;
+    private final boolean active;
+    private final long version;
+    private final long revision;
+
+    public ProductoView(int id, String nombre, String descripcion, int stock, double precio, boolean active,
+            long version, long revision) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.stock = stock;
+        this.precio = precio;
+        this.active = active;
+        this.version = version;
+        this.revision = revision;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public double getPrecio() {
+        return precio;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+}
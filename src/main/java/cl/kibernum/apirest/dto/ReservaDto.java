@@ -0,0 +1,36 @@
+package cl.kibernum.apirest.dto;
+
+import java.time.Instant;
+
+public class ReservaDto {
+    private String id;
+    private Integer productoId;
+    private int cantidad;
+    // Momento en que la reserva se libera si no se confirma.
+    private Instant expiresAt;
+
+    public ReservaDto() { }
+
+    public ReservaDto(String id, int productoId, int cantidad, Instant expiresAt) {
+        this.id = id;
+        this.productoId = productoId;
+        this.cantidad = cantidad;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Integer getProductoId() {
+        return productoId;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,22 @@
+package cl.kibernum.apirest.dto;
+
+import java.util.List;
+
+public class SearchResult<T> {
+    // Cantidad total de coincidencias, aunque items venga recortado por limit.
+    private final int total;
+    private final List<T> items;
+
+    public SearchResult(int total, List<T> items) {
+        this.total = total;
+        this.items = items;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+}
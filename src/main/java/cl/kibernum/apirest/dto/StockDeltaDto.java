@@ -0,0 +1,23 @@
+package cl.kibernum.apirest.dto;
+
+public class StockDeltaDto {
+    // Id del producto; solo se usa en el ajuste por lote (PATCH /api/v1/productos/stock).
+    private Integer id;
+    // Cantidad a sumar (positiva) o descontar (negativa) del stock actual.
+    private int delta;
+
+    public StockDeltaDto() { }
+
+    public StockDeltaDto(Integer id, int delta) {
+        this.id = id;
+        this.delta = delta;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+}
@@ -0,0 +1,32 @@
+package cl.kibernum.apirest.dto;
+
+public class StockDisponibleDto {
+    private final int productoId;
+    // Stock confirmado en la base más las ventas confirmadas que aún no se escriben.
+    private final int stock;
+    private final int reservado;
+    private final int disponible;
+
+    public StockDisponibleDto(int productoId, int stock, int reservado, int disponible) {
+        this.productoId = productoId;
+        this.stock = stock;
+        this.reservado = reservado;
+        this.disponible = disponible;
+    }
+
+    public int getProductoId() {
+        return productoId;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public int getReservado() {
+        return reservado;
+    }
+
+    public int getDisponible() {
+        return disponible;
+    }
+}
@@ -2,16 +2,29 @@ package cl.kibernum.apirest.entities;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import cl.kibernum.apirest.services.ProductoIndexListener;
+import cl.kibernum.apirest.services.ProductoRevisionListener;
 
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", indexes = {
+    @Index(name = "idx_productos_status_id", columnList = "status, id"),
+    @Index(name = "idx_productos_revision", columnList = "revision")
+})
+@EntityListeners({ProductoRevisionListener.class, ProductoIndexListener.class})
 public class Producto {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación por bloques: IDENTITY obliga a un INSERT inmediato por fila y desactiva el batching JDBC.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_seq")
+    @SequenceGenerator(name = "productos_seq", sequenceName = "productos_seq", allocationSize = 50)
     private int id;
     @Column(unique = true, nullable = false, length = 50)
     private String nombre;
@@ -23,6 +36,13 @@ public class Producto {
     private double precio;
     @Column(name = "status", nullable = false)
     private boolean active = true;
+    // Control optimista de concurrencia; también se expone como ETag del producto.
+    @Version
+    @Column(nullable = false)
+    private long version;
+    // Revisión global del catálogo en que se hizo el último cambio (ver CatalogRevision).
+    @Column(nullable = false)
+    private long revision;
     
     public Producto(String nombre, String descripcion, int stock, double precio) {
         this.nombre = nombre;
@@ -70,6 +90,18 @@ public class Producto {
         this.precio = precio;
     }
     
+    public long getVersion() {
+        return version;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
     public boolean isActive() {
         return active;
     }
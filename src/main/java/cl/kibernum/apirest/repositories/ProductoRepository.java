@@ -1,15 +1,87 @@
 package cl.kibernum.apirest.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import cl.kibernum.apirest.dto.ProductoView;
 import cl.kibernum.apirest.entities.Producto;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Integer> {
+    int STREAM_FETCH_SIZE = 500;
+    // Listados de solo lectura: proyección por constructor, sin entidades administradas.
+    String SELECT_VIEW = "select new cl.kibernum.apirest.dto.ProductoView(p.id, p.nombre, p.descripcion, p.stock,"
+            + " p.precio, p.active, p.version, p.revision) from Producto p";
+
     List<Producto> findAllByActiveTrue();  
     Optional<Producto> findByNombre(String nombre);
-} 
\ No newline at end of file
+    // Detección de duplicados por bloque en la carga masiva: una sola consulta por bloque.
+    List<Producto> findByNombreIn(Collection<String> nombres);
+
+    // Paginación keyset: busca sobre la PK (o el índice status, id) en vez de usar OFFSET.
+    @Query(SELECT_VIEW + " where p.id > :after order by p.id")
+    List<ProductoView> findViewPage(@Param("after") int after, Limit limit);
+
+    @Query(SELECT_VIEW + " where p.active = true and p.id > :after order by p.id")
+    List<ProductoView> findActiveViewPage(@Param("after") int after, Limit limit);
+
+    @Query(SELECT_VIEW + " where p.id in :ids")
+    List<ProductoView> findViewsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Ajuste atómico de stock en una sola sentencia: sin leer la entidad y sin dejar el stock negativo.
+    // Retorna 0 si el producto no existe, si el stock no alcanza o si el resultado no cabe en un int (la
+    // condición suma en long para que la base no desborde). Incrementa la versión (ETag) del producto
+    // y le asigna la revisión recibida (CatalogRevision.next()), ya que un UPDATE masivo no pasa por los listeners.
+    @Modifying
+    @Query("update Producto p set p.stock = p.stock + :delta, p.version = p.version + 1, p.revision = :revision"
+            + " where p.id = :id and cast(p.stock as Long) + :delta between 0 and 2147483647")
+    int adjustStock(@Param("id") int id, @Param("delta") int delta, @Param("revision") long revision);
+
+    // Stock y versión que dejó adjustStock, leídos en la misma transacción (la fila sigue bloqueada hasta el commit).
+    @Query("select p.stock, p.version from Producto p where p.id = :id")
+    List<Object[]> findStockAndVersionById(@Param("id") int id);
+
+    // Sincronización incremental: cambios posteriores a since, hasta una revisión ya confirmada.
+    @Query(SELECT_VIEW + " where p.revision > :since and p.revision <= :upTo order by p.revision")
+    List<ProductoView> findChangedViews(@Param("since") long since, @Param("upTo") long upTo, Limit limit);
+
+    @Query("select coalesce(max(p.revision), 0) from Producto p")
+    long findMaxRevision();
+
+    // Filtro por rangos resuelto en la base (mientras el índice en memoria no está listo): recorre la clave primaria
+    // desde el cursor y filtra cada fila; no hay índice por precio/stock porque el orden de la página es por id.
+    @Query(SELECT_VIEW + " where p.id > :after and p.precio between :minPrecio and :maxPrecio"
+            + " and p.stock >= :minStock order by p.id")
+    List<ProductoView> findFiltered(@Param("after") int after, @Param("minPrecio") double minPrecio,
+            @Param("maxPrecio") double maxPrecio, @Param("minStock") int minStock, Limit limit);
+
+    @Query(SELECT_VIEW + " where p.active = true and p.id > :after and p.precio between :minPrecio and :maxPrecio"
+            + " and p.stock >= :minStock order by p.id")
+    List<ProductoView> findActiveFiltered(@Param("after") int after, @Param("minPrecio") double minPrecio,
+            @Param("maxPrecio") double maxPrecio, @Param("minStock") int minStock, Limit limit);
+
+    // Stock y estado por producto para el ledger de reservas (sin cargar entidades).
+    @Query("select p.id, p.stock, p.active from Producto p where p.id in :ids")
+    List<Object[]> findStockByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("select p.id, p.stock, p.active from Producto p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    Stream<Object[]> streamAllStock();
+
+    // Recorrido forward-only para exportaciones: debe consumirse dentro de una transacción y cerrarse.
+    @Query(SELECT_VIEW + " order by p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    Stream<ProductoView> streamAllViews();
+} 
@@ -0,0 +1,220 @@
+package cl.kibernum.apirest.security.auth;
+
+import cl.kibernum.apirest.security.exception.RateLimitExceededException;
+import cl.kibernum.apirest.security.jwt.JwtProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Límite de intentos en memoria para login, registro y refresh, por IP del cliente y por usuario.
+ *
+ * Se consulta antes de cualquier trabajo de BCrypt o de base de datos; al excederse se lanza
+ * RateLimitExceededException (429 + Retry-After).
+ * - Cada clave (límite + IP o usuario) tiene una cubeta de tokens. Se guarda como GCRA: un solo long con
+ *   el instante teórico en que la cubeta vuelve a estar llena, sin hilos que la rellenen.
+ * - Las cubetas se reparten en stripes, cada una con su lock y su mapa; claves distintas rara vez compiten.
+ * - Memoria acotada: cada stripe admite maxKeys / stripes claves y cada 30 segundos se eliminan las cubetas
+ *   ya llenas (equivalentes a una clave nueva). Las IPs y los usuarios usan stripes separadas, así un
+ *   flood de IPs no desplaza las cubetas de usuarios.
+ * - Con una stripe llena, una clave nueva reemplaza primero a una cubeta ya llena (no se pierde nada).
+ *   Si no hay ninguna: en IPs se descarta la menos usada (solo reinicia el presupuesto de esa IP); en
+ *   usuarios la clave nueva se rechaza con 429 hasta que alguna se rellene, porque descartar una cubeta
+ *   a medio vaciar le devolvería los intentos a quien prueba contraseñas sobre ese usuario.
+ * - Métricas: auth.rate.limited (limit = login_ip, login_username, register_ip o refresh_ip).
+ */
+@Component
+public class AuthRateLimiter {
+
+    public enum Limit { LOGIN_IP, LOGIN_USERNAME, REGISTER_IP, REFRESH_IP }
+
+    // Cubetas revisadas, desde la menos usada, al buscar una ya llena para reemplazar.
+    private static final int EVICTION_SCAN = 32;
+
+    private final boolean enabled;
+    // Por límite (ordinal): nanos entre tokens y tolerancia de ráfaga ((capacity - 1) * intervalo).
+    private final long[] intervalNanos = new long[Limit.values().length];
+    private final long[] burstNanos = new long[Limit.values().length];
+    private final Counter[] limited = new Counter[Limit.values().length];
+    private final Stripe[] ipStripes;
+    private final Stripe[] usernameStripes;
+    private final int stripeMask;
+
+    public AuthRateLimiter(JwtProperties props, MeterRegistry registry) {
+        JwtProperties.RateLimit config = props.getAuth().getRateLimit();
+        this.enabled = config.isEnabled();
+        configure(Limit.LOGIN_IP, config.getLoginPerIp());
+        configure(Limit.LOGIN_USERNAME, config.getLoginPerUsername());
+        configure(Limit.REGISTER_IP, config.getRegisterPerIp());
+        configure(Limit.REFRESH_IP, config.getRefreshPerIp());
+        for (Limit limit : Limit.values()) {
+            limited[limit.ordinal()] = Counter.builder("auth.rate.limited")
+                .description("Intentos rechazados con 429 por el límite de autenticación")
+                .tag("limit", limit.name().toLowerCase(Locale.ROOT))
+                .register(registry);
+        }
+        int count = config.getStripes() <= 1 ? 1 : Integer.highestOneBit(config.getStripes() - 1) << 1;
+        int maxPerStripe = Math.max(1, config.getMaxKeys() / count);
+        this.ipStripes = new Stripe[count];
+        this.usernameStripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            ipStripes[i] = new Stripe(maxPerStripe);
+            usernameStripes[i] = new Stripe(maxPerStripe);
+        }
+        this.stripeMask = count - 1;
+    }
+
+    private void configure(Limit limit, JwtProperties.Budget budget) {
+        int capacity = Math.max(1, budget.getCapacity());
+        long interval = Math.max(1, budget.getPeriod().toNanos() / capacity);
+        intervalNanos[limit.ordinal()] = interval;
+        burstNanos[limit.ordinal()] = interval * (capacity - 1);
+    }
+
+    /**
+     * Consume un intento de la clave; si no quedan, lanza RateLimitExceededException con la espera sugerida.
+     * @param key IP del cliente o nombre de usuario (null no se limita)
+     */
+    public void acquire(Limit limit, String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        long waitNanos = tryAcquire(limit, key, System.nanoTime());
+        if (waitNanos > 0) {
+            limited[limit.ordinal()].increment();
+            throw new RateLimitExceededException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+    }
+
+    // 0 si se permite; si no, nanos hasta que haya un token disponible.
+    long tryAcquire(Limit limit, String key, long now) {
+        int ordinal = limit.ordinal();
+        boolean username = limit == Limit.LOGIN_USERNAME;
+        Key bucketKey = new Key(limit, username ? key.toLowerCase(Locale.ROOT) : key);
+        Stripe stripe = (username ? usernameStripes : ipStripes)[spread(bucketKey.hashCode()) & stripeMask];
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(bucketKey);
+            if (bucket == null) {
+                if (stripe.buckets.size() >= stripe.maxKeys) {
+                    long waitNanos = makeRoom(stripe, now, !username);
+                    if (waitNanos > 0) {
+                        return waitNanos;
+                    }
+                }
+                bucket = new Bucket(now);
+                stripe.buckets.put(bucketKey, bucket);
+            }
+            // GCRA: se permite si el instante teórico no supera a now en más de la ráfaga tolerada.
+            long tat = Math.max(bucket.fullAt, now);
+            long allowedAt = tat - burstNanos[ordinal];
+            if (allowedAt - now > 0) {
+                return allowedAt - now;
+            }
+            bucket.fullAt = tat + intervalNanos[ordinal];
+            return 0;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Libera un lugar en la stripe (con su lock tomado). 0 si lo consiguió; si no, nanos hasta que la primera
+    // cubeta revisada se rellene.
+    private static long makeRoom(Stripe stripe, long now, boolean evictLeastUsed) {
+        Iterator<Bucket> it = stripe.buckets.values().iterator();
+        long wait = Long.MAX_VALUE;
+        for (int i = 0; i < EVICTION_SCAN && it.hasNext(); i++) {
+            long untilFull = it.next().fullAt - now;
+            if (untilFull <= 0) {
+                it.remove();
+                return 0;
+            }
+            wait = Math.min(wait, untilFull);
+        }
+        if (evictLeastUsed) {
+            Iterator<Key> eldest = stripe.buckets.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            return 0;
+        }
+        return wait;
+    }
+
+    /**
+     * Elimina las cubetas que ya se rellenaron por completo; volver a crearlas no cambia el resultado.
+     */
+    @Scheduled(fixedDelay = 30, initialDelay = 30, timeUnit = TimeUnit.SECONDS)
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    void evictIdle(long now) {
+        evictIdle(ipStripes, now);
+        evictIdle(usernameStripes, now);
+    }
+
+    private static void evictIdle(Stripe[] stripes, long now) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                Iterator<Bucket> it = stripe.buckets.values().iterator();
+                while (it.hasNext()) {
+                    if (it.next().fullAt - now <= 0) {
+                        it.remove();
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        return size(ipStripes) + size(usernameStripes);
+    }
+
+    private static int size(Stripe[] stripes) {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.buckets.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private record Key(Limit limit, String value) { }
+
+    // Instante (System.nanoTime) en que la cubeta vuelve a estar llena. Protegido por el lock de su stripe.
+    private static final class Bucket {
+        long fullAt;
+
+        Bucket(long now) {
+            this.fullAt = now;
+        }
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        // Orden de acceso: las claves usadas hace más tiempo quedan primero.
+        final LinkedHashMap<Key, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+        final int maxKeys;
+
+        Stripe(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package cl.kibernum.apirest.security.auth;
+
+import cl.kibernum.apirest.security.exception.HashingCapacityExceededException;
+import cl.kibernum.apirest.security.jwt.JwtProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ejecutor dedicado y acotado para el trabajo de BCrypt (login y registro).
+ *
+ * Objetivo: que una avalancha de logins no consuma todos los hilos de Tomcat y deje sin servicio
+ * a las lecturas del catálogo.
+ * - Pool fijo de hilos (security.auth.hash-threads) y cola acotada (security.auth.hash-queue-capacity).
+ * - Si la cola está llena, la tarea se rechaza de inmediato con 503 + Retry-After.
+ * - Si el resultado no llega dentro de security.auth.hash-timeout, también se responde 503.
+ * - Métricas: auth.hash.duration (outcome = success o failure), auth.hash.queue.size, auth.hash.active,
+ *   auth.hash.rejected.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    // Pool de hilos de plataforma: BCrypt es trabajo de CPU, no se beneficia de hilos virtuales.
+    private final ThreadPoolExecutor executor;
+    // Tiempo máximo que el hilo de la request espera el resultado.
+    private final long timeoutMillis;
+    // Latencia de cada hash/autenticación (solo ejecución, sin tiempo en cola), por resultado.
+    private final Timer hashSuccess;
+    private final Timer hashFailure;
+    // Tareas rechazadas por cola llena o timeout.
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(JwtProperties props, MeterRegistry registry) {
+        JwtProperties.Auth auth = props.getAuth();
+        int threads = Math.max(1, auth.getHashThreads());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, auth.getHashQueueCapacity())), new HashingThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = auth.getHashTimeout().toMillis();
+        this.hashSuccess = hashTimer(registry, "success");
+        this.hashFailure = hashTimer(registry, "failure");
+        this.rejected = Counter.builder("auth.hash.rejected")
+            .description("Tareas de hashing rechazadas por saturación")
+            .register(registry);
+        Gauge.builder("auth.hash.queue.size", executor, e -> e.getQueue().size())
+            .description("Tareas de hashing en espera")
+            .register(registry);
+        Gauge.builder("auth.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Hilos ejecutando hashing")
+            .register(registry);
+    }
+
+    private static Timer hashTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.hash.duration")
+            .description("Duración del trabajo de BCrypt (login y registro)")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * Ejecuta la tarea en el pool de hashing y espera su resultado.
+     * Las excepciones de la tarea (p. ej. BadCredentialsException) se propagan tal cual.
+     * @throws HashingCapacityExceededException si el pool está saturado o se agota el tiempo de espera
+     */
+    public <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingCapacityExceededException();
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new HashingCapacityExceededException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashingCapacityExceededException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // Un login con credenciales inválidas cuenta como failure (la tarea lanza BadCredentialsException).
+    private <T> T timed(Callable<T> task) throws Exception {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = task.call();
+            success = true;
+            return result;
+        } finally {
+            (success ? hashSuccess : hashFailure).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Hilos daemon con nombre reconocible en thread dumps.
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "password-hash-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package cl.kibernum.apirest.security.auth;
+
+import cl.kibernum.apirest.security.domain.Role;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Authorities precalculadas para cada combinación de roles.
+ *
+ * Role es un enum chico y fijo, así que cada combinación se representa con una máscara de bits
+ * (bit = ordinal del rol) y su lista inmutable de authorities se arma una sola vez al cargar la clase.
+ * El filtro JWT reutiliza la misma lista en todas las requests en vez de crear strings, authorities
+ * y listas nuevas. Los tokens llevan la máscara en el claim "rmask".
+ *
+ * Importante: la máscara depende del orden de Role. Los roles nuevos se agregan al final; reordenar
+ * el enum cambiaría el significado de los tokens ya emitidos.
+ */
+public final class RoleAuthorities {
+
+    private static final Role[] ROLES = Role.values();
+    // Índice = máscara; cada lista sigue el orden del enum.
+    private static final List<List<GrantedAuthority>> BY_MASK;
+    // Nombre del rol con y sin prefijo ROLE_ -> rol, para traducir el claim "roles" sin excepciones.
+    private static final Map<String, Role> BY_NAME = new HashMap<>();
+
+    static {
+        List<GrantedAuthority> single = new ArrayList<>(ROLES.length);
+        for (Role role : ROLES) {
+            single.add(new SimpleGrantedAuthority(role.name()));
+            BY_NAME.put(role.name(), role);
+            BY_NAME.put(role.name().substring("ROLE_".length()), role);
+        }
+        List<List<GrantedAuthority>> byMask = new ArrayList<>(1 << ROLES.length);
+        for (int mask = 0; mask < 1 << ROLES.length; mask++) {
+            List<GrantedAuthority> authorities = new ArrayList<>(Integer.bitCount(mask));
+            for (int i = 0; i < ROLES.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    authorities.add(single.get(i));
+                }
+            }
+            byMask.add(List.copyOf(authorities));
+        }
+        BY_MASK = List.copyOf(byMask);
+    }
+
+    private RoleAuthorities() {
+    }
+
+    /**
+     * Máscara de bits de un conjunto de roles, para el claim "rmask".
+     */
+    public static int mask(Collection<Role> roles) {
+        int mask = 0;
+        for (Role role : roles) {
+            mask |= 1 << role.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Lista compartida de authorities para la máscara.
+     * @return null si la máscara tiene bits que no corresponden a ningún rol
+     */
+    public static List<GrantedAuthority> forMask(int mask) {
+        return mask >= 0 && mask < BY_MASK.size() ? BY_MASK.get(mask) : null;
+    }
+
+    /**
+     * Traduce los nombres del claim "roles" (con o sin prefijo ROLE_) a la lista compartida.
+     * Si aparece un rol que no está en el enum, arma una lista nueva para no perderlo.
+     */
+    public static List<GrantedAuthority> forNames(List<String> names) {
+        int mask = 0;
+        for (String name : names) {
+            Role role = BY_NAME.get(name);
+            if (role == null) {
+                return build(names);
+            }
+            mask |= 1 << role.ordinal();
+        }
+        return BY_MASK.get(mask);
+    }
+
+    private static List<GrantedAuthority> build(List<String> names) {
+        List<GrantedAuthority> authorities = new ArrayList<>(names.size());
+        for (String name : names) {
+            authorities.add(new SimpleGrantedAuthority(name.startsWith("ROLE_") ? name : "ROLE_" + name));
+        }
+        return List.copyOf(authorities);
+    }
+}
@@ -95,15 +95,18 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 // Endpoints públicos (login/registro/refresh y consola H2).
                 .requestMatchers("/api/v1/auth/**", "/h2-console/**").permitAll()
+                // Health abierto para balanceadores; el resto de actuator (métricas) solo ADMIN.
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Lecturas permitidas a USER o ADMIN.
                 .requestMatchers(HttpMethod.GET, "/api/v1/productos/**").hasAnyRole("USER", "ADMIN")
                
                 // Operaciones de escritura solo para ADMIN.
-                .requestMatchers(HttpMethod.GET, "/api/v1/usuarios/**").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/v1/users/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/v1/productos/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PUT, "/api/v1/productos/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PATCH, "/api/v1/productos/**").hasRole("ADMIN")
-                .requestMatchers(HttpMethod.PATCH, "/api/v1/usuarios/**").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.PATCH, "/api/v1/users/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/v1/productos/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
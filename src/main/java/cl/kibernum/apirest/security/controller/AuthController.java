@@ -1,5 +1,9 @@
 package cl.kibernum.apirest.security.controller;
 
+// Límite de intentos de login/registro/refresh por IP y por usuario.
+import cl.kibernum.apirest.security.auth.AuthRateLimiter;
+// Pool acotado para el trabajo de BCrypt.
+import cl.kibernum.apirest.security.auth.PasswordHashingExecutor;
 // Roles de la aplicación (ROLE_USER, ROLE_ADMIN).
 import cl.kibernum.apirest.security.domain.Role;
 // Entidad JPA que representa a los usuarios de la aplicación.
@@ -14,19 +18,32 @@ import cl.kibernum.apirest.security.dto.RegisterRequest;
 import cl.kibernum.apirest.security.jwt.JwtProperties;
 // Servicio para emitir y validar tokens JWT.
 import cl.kibernum.apirest.security.jwt.JwtService;
+// Denylist de tokens revocados (logout).
+import cl.kibernum.apirest.security.jwt.TokenDenylist;
 // Repositorio para persistencia de usuarios.
 import cl.kibernum.apirest.security.repository.UserAccountRepository;
+// Versión vigente de tokens por usuario, en memoria.
+import cl.kibernum.apirest.security.services.TokenVersionIndex;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.util.Set;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * Controlador apirest de autenticación y gestión de tokens.
@@ -38,11 +55,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
  * característica está habilitada en propiedades.
  * - POST /refresh: recibe un refresh token (en el cuerpo como texto plano) y
  * devuelve un nuevo accessToken (+ refreshToken).
+ * - POST /logout: revoca el access token del header Authorization (y el refresh
+ * token opcional del cuerpo) agregándolos a la denylist, si está habilitada.
+ * - GET /.well-known/jwks.json: llaves públicas ES256 para verificar los tokens
+ * sin llamar a esta aplicación (404 si se firma con HS256).
  *
  * Respuestas y errores:
  * - 200 OK: operación exitosa.
  * - 401 Unauthorized: credenciales inválidas o refresh token inválido/expirado.
- * - 404 Not Found: registro/refresh deshabilitados por configuración.
+ * - 404 Not Found: registro/refresh/denylist deshabilitados por configuración.
+ * - 429 Too Many Requests: demasiados intentos de login/registro/refresh desde la
+ * misma IP (o para el mismo usuario en login); incluye Retry-After.
  * - 400 Bad Request: datos inválidos (manejado por validación y advice global).
  */
 @Controller
@@ -60,16 +83,29 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     // Propiedades de seguridad, incluyendo toggles de registro/refresh.
     private final JwtProperties props;
+    // Denylist de tokens revocados.
+    private final TokenDenylist denylist;
+    // Índice username -> tokenVersion para rechazar tokens viejos sin ir a la base.
+    private final TokenVersionIndex tokenVersions;
+    // Ejecutor acotado donde corre BCrypt, fuera de los hilos de Tomcat.
+    private final PasswordHashingExecutor hashingExecutor;
+    // Cubetas de intentos por IP/usuario; se consultan antes de BCrypt o la base.
+    private final AuthRateLimiter rateLimiter;
 
     // Inyección por constructor de todos los colaboradores.
     public AuthController(AuthenticationManager authManager, JwtService jwtService,
             UserAccountRepository userRepo, PasswordEncoder passwordEncoder,
-            JwtProperties props) {
+            JwtProperties props, TokenDenylist denylist, TokenVersionIndex tokenVersions,
+            PasswordHashingExecutor hashingExecutor, AuthRateLimiter rateLimiter) {
         this.authManager = authManager;
         this.jwtService = jwtService;
         this.userRepo = userRepo;
         this.passwordEncoder = passwordEncoder;
         this.props = props;
+        this.denylist = denylist;
+        this.tokenVersions = tokenVersions;
+        this.hashingExecutor = hashingExecutor;
+        this.rateLimiter = rateLimiter;
     }
 
     /**
@@ -77,15 +113,20 @@ public class AuthController {
      * Entrada: {@link LoginRequest} validado (@Valid).
      * Salida: {@link AuthResponse} con accessToken, expiresIn y (opcional)
      * refreshToken.
-     * Errores: 401 (BadCredentialsException) si credenciales inválidas.
+     * Errores: 401 (BadCredentialsException) si credenciales inválidas;
+     * 503 si el pool de hashing está saturado; 429 si se agotaron los intentos
+     * de la IP o del usuario.
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
+        rateLimiter.acquire(AuthRateLimiter.Limit.LOGIN_IP, httpRequest.getRemoteAddr());
+        rateLimiter.acquire(AuthRateLimiter.Limit.LOGIN_USERNAME, request.getUsername());
         try {
             // Delegamos la verificación de credenciales al AuthenticationManager
-            // (PasswordEncoder incluido).
-            authManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+            // (PasswordEncoder incluido), dentro del pool acotado de hashing.
+            hashingExecutor.execute(() -> authManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())));
             // Cargamos el usuario para construir los claims/roles del token.
             UserAccount user = userRepo.findByUsername(request.getUsername()).orElseThrow();
             // Generamos access token (siempre) y refresh token (si está habilitado).
@@ -108,10 +149,12 @@ public class AuthController {
      * global).
      */
     @PostMapping("/register")
-    public ResponseEntity<Void> register(@Valid @RequestBody RegisterRequest request) {
+    public ResponseEntity<Void> register(@Valid @RequestBody RegisterRequest request,
+            HttpServletRequest httpRequest) {
         if (!props.getAuth().isRegistrationEnabled()) {
             return ResponseEntity.notFound().build();
         }
+        rateLimiter.acquire(AuthRateLimiter.Limit.REGISTER_IP, httpRequest.getRemoteAddr());
         if (userRepo.existsByUsername(request.getUsername())) {
             throw new IllegalArgumentException("Username already exists");
         }
@@ -122,7 +165,7 @@ public class AuthController {
         ua.setNombre(request.getNombre());
         ua.setApellido(request.getApellido());
         ua.setEmail(request.getEmail());
-        ua.setPassword(passwordEncoder.encode(request.getPassword()));
+        ua.setPassword(hashingExecutor.execute(() -> passwordEncoder.encode(request.getPassword())));
         ua.setEnabled(true);
         ua.setRoles(Set.of(Role.ROLE_USER));
         userRepo.save(ua);
@@ -138,21 +181,70 @@ public class AuthController {
      * por usuario.
      */
     @PostMapping("/refresh")
-    public ResponseEntity<AuthResponse> refresh(@RequestBody String refreshToken) {
+    public ResponseEntity<AuthResponse> refresh(@RequestBody String refreshToken,
+            HttpServletRequest httpRequest) {
         if (!props.getJwt().isRefreshEnabled()) {
             return ResponseEntity.notFound().build();
         }
+        rateLimiter.acquire(AuthRateLimiter.Limit.REFRESH_IP, httpRequest.getRemoteAddr());
         // Valida firma, expiración, issuer y extrae claims.
         var payload = jwtService.parseAndValidate(refreshToken);
-        UserAccount user = userRepo.findByUsername(payload.getSubject()).orElseThrow();
-        // Compara la versión de token embebida con la versión actual del usuario.
-        if (payload.getVersion() != user.getTokenVersion()) {
+        if (denylist.isRevoked(payload.getJti())) {
+            throw new BadCredentialsException("Refresh token revoked");
+        }
+        // Compara la versión de token embebida con la versión actual del usuario (en memoria).
+        if (!tokenVersions.isCurrent(payload.getSubject(), payload.getVersion())) {
             throw new BadCredentialsException("Invalid refresh token version");
         }
+        UserAccount user = userRepo.findByUsername(payload.getSubject()).orElseThrow();
         // Genera nuevo access token y, por conveniencia, un nuevo refresh token rotado.
         String access = jwtService.generateAccessToken(user);
         String refresh = jwtService.generateRefreshToken(user);
         long expiresIn = props.getJwt().getAccessTtl().toSeconds();
         return ResponseEntity.ok(new AuthResponse(access, expiresIn, refresh));
     }
+
+    /**
+     * Revoca el access token enviado en Authorization: Bearer <token> y, si viene,
+     * el refresh token del cuerpo (texto plano). Ambos quedan en la denylist hasta su exp.
+     * Si la denylist está deshabilitada via propiedades, responde 404 Not Found.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+            @RequestBody(required = false) String refreshToken) {
+        if (!denylist.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!authorization.startsWith("Bearer ")) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing bearer token");
+        }
+        revoke(authorization.substring(7));
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            revoke(refreshToken.trim());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // Valida el token (firma, exp, issuer) y lo agrega a la denylist hasta su expiración.
+    private void revoke(String token) {
+        var payload = jwtService.parseAndValidate(token);
+        denylist.revoke(payload.getJti(), payload.getExpiresAt().getTime());
+    }
+
+    /**
+     * Publica el JWKS con las llaves públicas vigentes (ES256) para que otros servicios
+     * verifiquen los tokens localmente por su kid.
+     * Se puede cachear 5 minutos; ante un kid desconocido el cliente debe volver a
+     * consultarlo (rotación de llaves). Responde 404 si los tokens se firman con HS256.
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        String jwks = jwtService.publicJwks();
+        if (jwks == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwks);
+    }
 }
@@ -5,10 +5,12 @@ import org.springframework.web.bind.annotation.RestController;
 
 import cl.kibernum.apirest.security.domain.*;
 import cl.kibernum.apirest.exception.ResourceNotFoundException;
+import cl.kibernum.apirest.security.dto.UserAccountView;
 import cl.kibernum.apirest.security.services.UserAccountServiceImpl;
 
-import java.util.List;
-
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -24,14 +26,17 @@ public class UserAccountController {
         this.UserAccountService = UserAccountService;
     }
 
+    // Ej.: GET /api/v1/users?active=true&email=ana&page=0&size=50&sort=email,asc
     @GetMapping
-    public ResponseEntity<List<UserAccount>> getAllUsers() {
-        return ResponseEntity.ok(UserAccountService.getAll());
+    public ResponseEntity<PagedModel<UserAccountView>> getAllUsers(@RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String email,
+            @PageableDefault(size = 50, sort = "id") Pageable pageable) {
+        return ResponseEntity.ok(new PagedModel<>(UserAccountService.findPage(active, email, pageable)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserAccount> getUserById(@RequestParam Long id) {
-        UserAccount UserAccount = UserAccountService.getById(id)
+    public ResponseEntity<UserAccountView> getUserById(@PathVariable Long id) {
+        UserAccountView UserAccount = UserAccountService.getById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("UserAccount no encontrado"));
 
         return ResponseEntity.ok(UserAccount);
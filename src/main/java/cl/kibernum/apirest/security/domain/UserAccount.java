@@ -11,14 +11,18 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Table;
 import java.util.HashSet;
 import java.util.Set;
 
+import cl.kibernum.apirest.security.services.UserAccountTokenListener;
 
 @Entity
 @Table(name = "users")
+// Mantiene el índice de versiones de token al día cuando se persiste un cambio del usuario.
+@EntityListeners(UserAccountTokenListener.class)
 public class UserAccount {
 
      // Identificador primario autogenerado por la base de datos.
@@ -43,7 +47,7 @@ public class UserAccount {
     @Column(nullable = false)
     private boolean active = true;
 
-     // Versión del token. Si se incrementa, invalida los refresh tokens existentes.
+     // Versión del token. Si se incrementa, invalida los access y refresh tokens existentes.
     @Column(nullable = false)
     private int tokenVersion = 0; // used to invalidate refresh tokens
 
@@ -109,7 +113,7 @@ public class UserAccount {
     public void setRoles(Set<Role> roles) { this.roles = roles; }
 
     /**
-      * Incrementa la versión de token para invalidar refresh tokens previamente emitidos.
+      * Incrementa la versión de token para invalidar access y refresh tokens previamente emitidos.
       * Útil para forzar cierre de sesión global del usuario (p. ej., al cambiar contraseña).
      */
     public void incrementTokenVersion() {
@@ -0,0 +1,38 @@
+package cl.kibernum.apirest.security.dto;
+
+import java.util.Set;
+
+import cl.kibernum.apirest.security.domain.Role;
+
+/**
+ * Vista de solo lectura de un usuario para la administración.
+ * Se arma con "select new" en UserAccountRepository: no incluye el hash de la contraseña
+ * ni la versión de token. Los roles se completan después con una sola consulta por página.
+ */
+public class UserAccountView {
+    private final Long id;
+    private final String username;
+    private final String nombre;
+    private final String apellido;
+    private final String email;
+    private final boolean active;
+    private Set<Role> roles = Set.of();
+
+    public UserAccountView(Long id, String username, String nombre, String apellido, String email, boolean active) {
+        this.id = id;
+        this.username = username;
+        this.nombre = nombre;
+        this.apellido = apellido;
+        this.email = email;
+        this.active = active;
+    }
+
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getNombre() { return nombre; }
+    public String getApellido() { return apellido; }
+    public String getEmail() { return email; }
+    public boolean isActive() { return active; }
+    public Set<Role> getRoles() { return roles; }
+    public void setRoles(Set<Role> roles) { this.roles = roles; }
+}
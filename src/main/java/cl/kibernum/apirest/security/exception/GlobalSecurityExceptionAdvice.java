@@ -6,6 +6,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -51,6 +52,30 @@ public class GlobalSecurityExceptionAdvice {
         return error(HttpStatus.BAD_REQUEST, "Validation error", req.getRequestURI());
     }
 
+    /**
+     * Maneja la saturación del pool de hashing de contraseñas (login/registro).
+     * Devuelve 503 Service Unavailable con Retry-After para que el cliente reintente más tarde.
+     */
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleHashingCapacity(HashingCapacityExceededException ex, HttpServletRequest req) {
+        ResponseEntity<Map<String, Object>> response = error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), req.getRequestURI());
+        return ResponseEntity.status(response.getStatusCode())
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(HashingCapacityExceededException.RETRY_AFTER_SECONDS))
+            .body(response.getBody());
+    }
+
+    /**
+     * Maneja el exceso de intentos en login, registro o refresh.
+     * Devuelve 429 Too Many Requests con Retry-After en segundos.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleRateLimit(RateLimitExceededException ex, HttpServletRequest req) {
+        ResponseEntity<Map<String, Object>> response = error(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), req.getRequestURI());
+        return ResponseEntity.status(response.getStatusCode())
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(response.getBody());
+    }
+
     /**
      * Construye la respuesta JSON estándar para cualquier error manejado.
      * @param status código HTTP a devolver
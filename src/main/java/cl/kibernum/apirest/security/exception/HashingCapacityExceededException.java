@@ -0,0 +1,16 @@
+package cl.kibernum.apirest.security.exception;
+
+/**
+ * Se lanza cuando el pool de hashing de contraseñas está saturado.
+ * GlobalSecurityExceptionAdvice la traduce a 503 Service Unavailable con Retry-After.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    // Segundos sugeridos al cliente antes de reintentar.
+    public static final long RETRY_AFTER_SECONDS = 1;
+
+    public HashingCapacityExceededException() {
+        // Sin stack trace: se lanza en ráfagas durante una avalancha de logins.
+        super("Authentication service busy", null, false, false);
+    }
+}
@@ -0,0 +1,19 @@
+package cl.kibernum.apirest.security.exception;
+
+/**
+ * Se lanza cuando un cliente o usuario excede su presupuesto de intentos de autenticación.
+ * GlobalSecurityExceptionAdvice la traduce a 429 Too Many Requests con Retry-After.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    // Segundos hasta que vuelva a haber un intento disponible.
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        // Sin stack trace: se lanza en ráfagas justamente cuando hay abuso.
+        super("Too many requests", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -7,18 +7,22 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.stream.Collectors;
+import java.nio.charset.StandardCharsets;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 // Constantes estándar de headers HTTP.
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import cl.kibernum.apirest.security.jwt.JwtService;
+import cl.kibernum.apirest.security.jwt.TokenValidation;
+import cl.kibernum.apirest.security.jwt.TokenDenylist;
+import cl.kibernum.apirest.security.services.TokenVersionIndex;
 
 /**
  * Filtro que autentica las peticiones HTTP usando tokens JWT (Bearer).
@@ -26,21 +30,49 @@ import cl.kibernum.apirest.security.jwt.JwtService;
  * Flujo:
  * - Intercepta cada request (OncePerRequestFilter).
  * - Si el header Authorization comienza con "Bearer ", intenta validar el token.
- * - Si es válido, extrae el usuario y roles, y los coloca en el SecurityContext.
- * - Si es inválido, responde 401 Unauthorized en JSON y detiene la cadena de filtros.
+ * - Si es válido, no fue revocado (denylist) y su versión (ver) es la vigente del usuario, extrae el usuario y roles, y los coloca en el SecurityContext.
+ * - Si es inválido, responde 401 Unauthorized en JSON y detiene la cadena de filtros. El rechazo no usa
+ *   excepciones: JwtService.validate() descarta primero los tokens sin forma de JWS y el cuerpo del 401
+ *   es un arreglo de bytes preconstruido.
  * - Si no hay token, deja pasar la request (puede ser endpoint público).
  *
  * Nota: Este filtro se inserta antes del UsernamePasswordAuthenticationFilter en la cadena de Spring Security.
+ * Métricas: jwt.rejected (reason = malformed, invalid, revoked o stale).
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    // Cuerpo fijo del 401: se escribe tal cual, sin serializar ni asignar por request.
+    private static final byte[] UNAUTHORIZED_BODY = "{\"error\":\"Unauthorized\",\"code\":401}".getBytes(StandardCharsets.UTF_8);
 
     // Servicio para validar y decodificar tokens JWT.
     private final JwtService jwtService;
+    // Denylist de tokens revocados (por jti).
+    private final TokenDenylist denylist;
+    // Versión vigente de tokens por usuario (claim "ver"), en memoria.
+    private final TokenVersionIndex tokenVersions;
+    // Rechazos por motivo, creados una sola vez.
+    private final Counter rejectedMalformed;
+    private final Counter rejectedInvalid;
+    private final Counter rejectedRevoked;
+    private final Counter rejectedStale;
 
-    // Inyección por constructor del servicio JWT.
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    // Inyección por constructor del servicio JWT, la denylist, el índice de versiones y el registro de métricas.
+    public JwtAuthenticationFilter(JwtService jwtService, TokenDenylist denylist, TokenVersionIndex tokenVersions,
+            MeterRegistry registry) {
         this.jwtService = jwtService;
+        this.denylist = denylist;
+        this.tokenVersions = tokenVersions;
+        this.rejectedMalformed = rejectedCounter(registry, "malformed");
+        this.rejectedInvalid = rejectedCounter(registry, "invalid");
+        this.rejectedRevoked = rejectedCounter(registry, "revoked");
+        this.rejectedStale = rejectedCounter(registry, "stale");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("jwt.rejected")
+            .description("Requests rechazadas con 401 por el filtro JWT")
+            .tag("reason", reason)
+            .register(registry);
     }
 
     /**
@@ -60,32 +92,44 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Extrae el header Authorization.
         String header = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (header != null && header.startsWith("Bearer ")) {
-            String token = header.substring(7);
-            try {
-                // Valida firma, expiración y claims del token.
-                var payload = jwtService.parseAndValidate(token);
-                // Convierte los roles a authorities de Spring Security.
-                var authorities = payload.getRoles().stream()
-                        .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
-    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
-                // Crea el objeto Authentication y lo coloca en el contexto.
-                Authentication auth = new UsernamePasswordAuthenticationToken(payload.getSubject(), null, authorities);
-                SecurityContextHolder.getContext().setAuthentication(auth);
-            } catch (Exception ex) {
-                // Si el token es inválido, responde 401 Unauthorized en JSON y detiene la cadena.
-                response.resetBuffer();
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\":\"Unauthorized\",\"code\":401}");
-                response.flushBuffer();
+            // Valida forma, firma, expiración y claims del token.
+            TokenValidation validation = jwtService.validate(header.substring(7));
+            if (!validation.isValid()) {
+                reject(response, validation.getStatus() == TokenValidation.Status.MALFORMED ? rejectedMalformed : rejectedInvalid);
                 return; // stop chain
             }
+            var payload = validation.getPayload();
+            // Rechaza tokens revocados explícitamente (logout) aunque sigan vigentes.
+            if (denylist.isRevoked(payload.getJti())) {
+                reject(response, rejectedRevoked);
+                return;
+            }
+            // Rechaza tokens emitidos antes de un incremento de tokenVersion o de una desactivación.
+            if (!tokenVersions.isCurrent(payload.getSubject(), payload.getVersion())) {
+                reject(response, rejectedStale);
+                return;
+            }
+            // Authorities resueltas al verificar el token: lista compartida por combinación de roles.
+            var authorities = payload.getAuthorities();
+            // Crea el objeto Authentication y lo coloca en el contexto.
+            Authentication auth = new UsernamePasswordAuthenticationToken(payload.getSubject(), null, authorities);
+            SecurityContextHolder.getContext().setAuthentication(auth);
         }
         // Si no hay token, o es endpoint público, continúa la cadena normalmente.
         filterChain.doFilter(request, response);
     }
 
+    // Responde 401 Unauthorized en JSON con el cuerpo preconstruido.
+    private static void reject(HttpServletResponse response, Counter reason) throws IOException {
+        reason.increment();
+        response.resetBuffer();
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("application/json");
+        response.setContentLength(UNAUTHORIZED_BODY.length);
+        response.getOutputStream().write(UNAUTHORIZED_BODY);
+        response.flushBuffer();
+    }
+
     /**
      * Evita aplicar el filtro a endpoints públicos como /api/auth/** o la consola H2.
      * Esto previene que un Authorization inválido cause 401 en rutas públicas (por ejemplo, /api/auth/login).
@@ -0,0 +1,228 @@
+package cl.kibernum.apirest.security.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Llaves ES256 (EC P-256) leídas desde un directorio local, una por archivo *.json en formato JWK.
+ *
+ * Funcionamiento:
+ * - Un archivo con la parte privada puede firmar; uno solo con la parte pública se acepta para verificar
+ *   (llave retirada que aún tiene tokens vigentes). Si el JWK no trae kid se usa su thumbprint (RFC 7638).
+ * - Firma la llave privada modificada más recientemente: para rotar se agrega un archivo nuevo y el anterior
+ *   se deja hasta que expiren sus tokens (refresh-ttl), sin reiniciar la aplicación.
+ * - El firmador, el header y un verificador por kid se arman una vez por carga y quedan en un snapshot
+ *   inmutable; firmar y verificar solo leen un campo volatile. Una recarga reutiliza los verificadores
+ *   de las llaves que no cambiaron.
+ * - El JWKS público (sin partes privadas) se serializa una vez por carga.
+ */
+final class JwtKeySet {
+    private static final Logger log = LoggerFactory.getLogger(JwtKeySet.class);
+
+    private final Path dir;
+    private volatile Snapshot snapshot;
+    // Serializa las recargas; ReentrantLock y no synchronized porque recargar lee archivos.
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    // Nombre, tamaño y fecha de los archivos de la última carga: si no cambian no se vuelve a parsear.
+    // Protegido por reloadLock.
+    private String fingerprint;
+
+    /**
+     * Carga las llaves del directorio; si no hay ninguna que pueda firmar y generate es true, genera una.
+     * @throws IllegalStateException si no queda ninguna llave privada para firmar
+     */
+    JwtKeySet(Path dir, boolean generate) {
+        this.dir = dir;
+        try {
+            if (generate && signingKeys(readKeys()).isEmpty()) {
+                writeNewKey();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read JWT keys from " + dir, e);
+        }
+        if (!reload()) {
+            throw new IllegalStateException("No ES256 signing key found in " + dir);
+        }
+    }
+
+    Snapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Vuelve a leer el directorio si cambió algún archivo.
+     * Si la nueva lectura no tiene llave para firmar se mantiene el snapshot anterior.
+     * @return true si se publicó un snapshot nuevo
+     */
+    boolean reload() {
+        reloadLock.lock();
+        try {
+            String current = fingerprint();
+            if (current.equals(fingerprint)) {
+                return false;
+            }
+            List<LoadedKey> keys = readKeys();
+            List<LoadedKey> signing = signingKeys(keys);
+            if (signing.isEmpty()) {
+                log.warn("No ES256 signing key in {}; keeping the previous key set", dir);
+                return false;
+            }
+            snapshot = buildSnapshot(keys, signing.get(signing.size() - 1).key, snapshot);
+            fingerprint = current;
+            log.info("Loaded {} JWT keys from {}; signing with kid {}", keys.size(), dir, snapshot.signingKid());
+            return true;
+        } catch (IOException | JOSEException e) {
+            log.warn("Could not reload JWT keys from {}", dir, e);
+            return false;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private String fingerprint() throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : files) {
+                entries.add(file.getFileName() + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis());
+            }
+        }
+        Collections.sort(entries);
+        return String.join("|", entries);
+    }
+
+    // Llaves válidas del directorio ordenadas por fecha de modificación; los archivos inválidos se omiten.
+    private List<LoadedKey> readKeys() throws IOException {
+        List<LoadedKey> keys = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return keys;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : files) {
+                ECKey key = parse(file);
+                if (key != null) {
+                    keys.add(new LoadedKey(key, Files.getLastModifiedTime(file).toMillis()));
+                }
+            }
+        }
+        keys.sort((a, b) -> a.modifiedMillis != b.modifiedMillis
+            ? Long.compare(a.modifiedMillis, b.modifiedMillis)
+            : a.key.getKeyID().compareTo(b.key.getKeyID()));
+        return keys;
+    }
+
+    private static ECKey parse(Path file) {
+        try {
+            JWK jwk = JWK.parse(Files.readString(file));
+            if (!(jwk instanceof ECKey ec) || !Curve.P_256.equals(ec.getCurve())) {
+                log.warn("Ignoring JWT key {}: only EC P-256 keys are supported", file);
+                return null;
+            }
+            return ec.getKeyID() == null ? new ECKey.Builder(ec).keyIDFromThumbprint().build() : ec;
+        } catch (IOException | ParseException | JOSEException e) {
+            log.warn("Ignoring JWT key {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<LoadedKey> signingKeys(List<LoadedKey> keys) {
+        List<LoadedKey> signing = new ArrayList<>();
+        for (LoadedKey loaded : keys) {
+            if (loaded.key.isPrivate()) {
+                signing.add(loaded);
+            }
+        }
+        return signing;
+    }
+
+    private static Snapshot buildSnapshot(List<LoadedKey> keys, ECKey signingKey, Snapshot previous) throws JOSEException {
+        Map<String, JWSVerifier> verifiers = new HashMap<>();
+        // De la más nueva a la más antigua: ante un kid repetido gana el archivo más reciente, que es
+        // el que firma; el JWKS publica primero la llave vigente.
+        Map<String, ECKey> publicKeys = new LinkedHashMap<>();
+        for (LoadedKey loaded : keys.reversed()) {
+            ECKey publicKey = loaded.key.toPublicJWK();
+            String kid = publicKey.getKeyID();
+            if (publicKeys.putIfAbsent(kid, publicKey) != null) {
+                log.warn("Duplicate JWT kid {}; keeping the newest key", kid);
+                continue;
+            }
+            JWSVerifier reused = previous == null || !publicKey.equals(previous.publicKeys.get(kid))
+                ? null : previous.verifiers.get(kid);
+            verifiers.put(kid, reused != null ? reused : new ECDSAVerifier(publicKey));
+        }
+        JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.ES256)
+            .type(JOSEObjectType.JWT)
+            .keyID(signingKey.getKeyID())
+            .build();
+        String jwks = new JWKSet(new ArrayList<JWK>(publicKeys.values())).toString(true);
+        return new Snapshot(signingKey.getKeyID(), new ECDSASigner(signingKey), header, Map.copyOf(verifiers),
+            Map.copyOf(publicKeys), jwks);
+    }
+
+    // Genera una llave P-256 con kid = thumbprint y la escribe con permisos solo para el dueño.
+    private void writeNewKey() throws IOException {
+        ECKey key;
+        try {
+            key = new ECKeyGenerator(Curve.P_256)
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(JWSAlgorithm.ES256)
+                .keyIDFromThumbprint(true)
+                .generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not generate JWT key", e);
+        }
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "jwk", ".tmp");
+        try {
+            Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Sistema de archivos sin permisos POSIX (Windows).
+        }
+        Files.writeString(tmp, key.toJSONString());
+        Path target = dir.resolve(key.getKeyID() + ".json");
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Generated JWT signing key {} in {}", key.getKeyID(), dir);
+    }
+
+    private record LoadedKey(ECKey key, long modifiedMillis) { }
+
+    /**
+     * Estado inmutable de una carga: llave de firma, verificadores por kid y JWKS público ya serializado.
+     */
+    record Snapshot(String signingKid, JWSSigner signer, JWSHeader header, Map<String, JWSVerifier> verifiers,
+            Map<String, ECKey> publicKeys, String jwks) {
+
+        // Null si el kid no pertenece al keyset.
+        JWSVerifier verifier(String kid) {
+            return kid == null ? null : verifiers.get(kid);
+        }
+    }
+}
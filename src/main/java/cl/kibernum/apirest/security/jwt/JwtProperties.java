@@ -20,13 +20,81 @@ public class JwtProperties {
     public Cors getCors() { return cors; }
 
     /**
-     * Subgrupo de propiedades para endpoints de autenticación (registro de usuarios).
+     * Subgrupo de propiedades para endpoints de autenticación (registro de usuarios y pool de hashing).
      */
     public static class Auth {
         // Habilita/deshabilita el endpoint de registro público.
         private boolean registrationEnabled = false;
+        // Hilos dedicados a BCrypt (login y registro).
+        private int hashThreads = Runtime.getRuntime().availableProcessors();
+        // Tareas de BCrypt que pueden esperar en cola antes de rechazar con 503.
+        private int hashQueueCapacity = 64;
+        // Tiempo máximo de espera de la request por el resultado del hashing.
+        private Duration hashTimeout = Duration.ofSeconds(5);
+        // Límite de intentos por IP y por usuario en login, registro y refresh.
+        private RateLimit rateLimit = new RateLimit();
+
         public boolean isRegistrationEnabled() { return registrationEnabled; }
         public void setRegistrationEnabled(boolean registrationEnabled) { this.registrationEnabled = registrationEnabled; }
+        public int getHashThreads() { return hashThreads; }
+        public void setHashThreads(int hashThreads) { this.hashThreads = hashThreads; }
+        public int getHashQueueCapacity() { return hashQueueCapacity; }
+        public void setHashQueueCapacity(int hashQueueCapacity) { this.hashQueueCapacity = hashQueueCapacity; }
+        public Duration getHashTimeout() { return hashTimeout; }
+        public void setHashTimeout(Duration hashTimeout) { this.hashTimeout = hashTimeout; }
+        public RateLimit getRateLimit() { return rateLimit; }
+        public void setRateLimit(RateLimit rateLimit) { this.rateLimit = rateLimit; }
+    }
+
+    /**
+     * Presupuestos de intentos (cubetas de tokens) para los endpoints de autenticación.
+     */
+    public static class RateLimit {
+        // Habilita/deshabilita el límite (responde 429 con Retry-After al excederlo).
+        private boolean enabled = true;
+        // Locks independientes sobre las cubetas; se redondea a potencia de 2.
+        private int stripes = 16;
+        // Máximo de claves en memoria, por separado para IPs y para usuarios (ver AuthRateLimiter).
+        private int maxKeys = 100_000;
+        private Budget loginPerIp = new Budget(20, Duration.ofMinutes(1));
+        private Budget loginPerUsername = new Budget(5, Duration.ofMinutes(1));
+        private Budget registerPerIp = new Budget(5, Duration.ofMinutes(10));
+        private Budget refreshPerIp = new Budget(30, Duration.ofMinutes(1));
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getStripes() { return stripes; }
+        public void setStripes(int stripes) { this.stripes = stripes; }
+        public int getMaxKeys() { return maxKeys; }
+        public void setMaxKeys(int maxKeys) { this.maxKeys = maxKeys; }
+        public Budget getLoginPerIp() { return loginPerIp; }
+        public void setLoginPerIp(Budget loginPerIp) { this.loginPerIp = loginPerIp; }
+        public Budget getLoginPerUsername() { return loginPerUsername; }
+        public void setLoginPerUsername(Budget loginPerUsername) { this.loginPerUsername = loginPerUsername; }
+        public Budget getRegisterPerIp() { return registerPerIp; }
+        public void setRegisterPerIp(Budget registerPerIp) { this.registerPerIp = registerPerIp; }
+        public Budget getRefreshPerIp() { return refreshPerIp; }
+        public void setRefreshPerIp(Budget refreshPerIp) { this.refreshPerIp = refreshPerIp; }
+    }
+
+    /**
+     * Cubeta de tokens: hasta capacity intentos seguidos y se recupera capacity cada period.
+     */
+    public static class Budget {
+        private int capacity;
+        private Duration period;
+
+        public Budget() {}
+
+        public Budget(int capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+        public Duration getPeriod() { return period; }
+        public void setPeriod(Duration period) { this.period = period; }
     }
 
     /**
@@ -35,6 +103,14 @@ public class JwtProperties {
     public static class Jwt {
         // Secreto de firma HMAC para los tokens JWT (debe ser largo y seguro).
         private String secret;
+        // Algoritmo de firma: HS256 (secreto compartido) o ES256 (llaves EC en keys-dir, publicadas en el JWKS).
+        private String algorithm = "HS256";
+        // Directorio con las llaves ES256, un JWK por archivo *.json; se relee cada 30 segundos.
+        private String keysDir;
+        // Genera una llave ES256 en keys-dir si no hay ninguna que pueda firmar (desarrollo).
+        private boolean generateKeys = false;
+        // Con ES256, sigue aceptando tokens HS256 firmados con secret mientras dura la migración.
+        private boolean acceptHs256 = false;
         // Issuer (emisor) que se incluye y valida en los tokens.
         private String issuer = "apirest";
         // Tiempo de vida del access token (ej: 15 minutos).
@@ -43,11 +119,26 @@ public class JwtProperties {
         private Duration refreshTtl = Duration.ofDays(7);
         // Habilita/deshabilita el endpoint y emisión de refresh tokens.
         private boolean refreshEnabled = true;
-        // Habilita/deshabilita la funcionalidad de denylist (no implementada por defecto).
+        // Habilita/deshabilita la denylist de tokens revocados (por jti).
         private boolean denylistEnabled = false;
+        // Archivo local donde se respalda la denylist para sobrevivir reinicios (vacío = solo memoria).
+        private String denylistFile;
+        // Cantidad de tokens verificados que se mantienen en caché (0 lo deshabilita).
+        private int verifiedCacheSize = 4096;
+        // Usuarios cuya versión de token (claim "ver") se mantiene en memoria, y por cuánto tiempo.
+        private int versionCacheSize = 100_000;
+        private Duration versionCacheTtl = Duration.ofMinutes(5);
 
         public String getSecret() { return secret; }
         public void setSecret(String secret) { this.secret = secret; }
+        public String getAlgorithm() { return algorithm; }
+        public void setAlgorithm(String algorithm) { this.algorithm = algorithm; }
+        public String getKeysDir() { return keysDir; }
+        public void setKeysDir(String keysDir) { this.keysDir = keysDir; }
+        public boolean isGenerateKeys() { return generateKeys; }
+        public void setGenerateKeys(boolean generateKeys) { this.generateKeys = generateKeys; }
+        public boolean isAcceptHs256() { return acceptHs256; }
+        public void setAcceptHs256(boolean acceptHs256) { this.acceptHs256 = acceptHs256; }
         public String getIssuer() { return issuer; }
         public void setIssuer(String issuer) { this.issuer = issuer; }
         public Duration getAccessTtl() { return accessTtl; }
@@ -58,6 +149,14 @@ public class JwtProperties {
         public void setRefreshEnabled(boolean refreshEnabled) { this.refreshEnabled = refreshEnabled; }
         public boolean isDenylistEnabled() { return denylistEnabled; }
         public void setDenylistEnabled(boolean denylistEnabled) { this.denylistEnabled = denylistEnabled; }
+        public String getDenylistFile() { return denylistFile; }
+        public void setDenylistFile(String denylistFile) { this.denylistFile = denylistFile; }
+        public int getVerifiedCacheSize() { return verifiedCacheSize; }
+        public void setVerifiedCacheSize(int verifiedCacheSize) { this.verifiedCacheSize = verifiedCacheSize; }
+        public int getVersionCacheSize() { return versionCacheSize; }
+        public void setVersionCacheSize(int versionCacheSize) { this.versionCacheSize = versionCacheSize; }
+        public Duration getVersionCacheTtl() { return versionCacheTtl; }
+        public void setVersionCacheTtl(Duration versionCacheTtl) { this.versionCacheTtl = versionCacheTtl; }
     }
 
     /**
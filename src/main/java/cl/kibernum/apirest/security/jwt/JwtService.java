@@ -1,5 +1,7 @@
 package cl.kibernum.apirest.security.jwt;
 
+// Authorities precalculadas por combinación de roles.
+import cl.kibernum.apirest.security.auth.RoleAuthorities;
 // Entidades de dominio para roles y usuarios.
 import cl.kibernum.apirest.security.domain.Role;
 import cl.kibernum.apirest.security.domain.UserAccount;
@@ -9,6 +11,7 @@ import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.time.Clock;
 import java.time.Instant;
@@ -16,12 +19,17 @@ import java.util.Date;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 // Logger para depuración de emisión de tokens.
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -34,30 +42,98 @@ import org.springframework.web.server.ResponseStatusException;
  * - Extraer payload relevante para el contexto de seguridad.
  *
  * Notas:
- * - Usa Nimbus JOSE + JWT para firmar (HS256) y validar tokens.
- * - El secreto debe tener al menos 32 caracteres (256 bits).
- * - Los claims incluyen: sub (usuario), roles, ver (tokenVersion), iss, iat, exp, jti.
+ * - Usa Nimbus JOSE + JWT para firmar y validar tokens, con HS256 (security.jwt.secret) o ES256
+ *   (security.jwt.algorithm=ES256, llaves en keys-dir). Con ES256 los tokens llevan kid y las llaves
+ *   públicas se publican en el JWKS, así otros servicios pueden verificarlos sin conocer ningún secreto.
+ * - El secreto HS256 debe tener al menos 32 caracteres (256 bits).
+ * - El verificador se elige por alg y kid del header; cada llave tiene uno solo, creado al cargarla.
+ * - Los claims incluyen: sub (usuario), roles, rmask (máscara de roles), ver (tokenVersion), iss, iat, exp, jti.
+ * - Las authorities del payload se resuelven una vez al verificar (desde rmask, o desde roles en tokens
+ *   anteriores) y son listas compartidas de RoleAuthorities.
+ * - La validación no usa excepciones: validate() entrega un TokenValidation y descarta antes de parsear
+ *   los tokens que no tienen forma de JWS (largo, 3 segmentos, alfabeto base64url).
+ * - Métricas: jwt.verify (outcome = cached, valid, invalid o malformed) y jwt.issue.
  */
 @Service
 public class JwtService {
      // Logger para depuración de emisión de tokens.
      private static final Logger log = LoggerFactory.getLogger(JwtService.class);
+    // Cotas para descartar basura antes de parsear: header + payload + firma HS256 rondan los 300 caracteres.
+    static final int MIN_TOKEN_LENGTH = 16;
+    static final int MAX_TOKEN_LENGTH = 8192;
+    // Tabla ASCII del alfabeto base64url (RFC 4648 §5), sin relleno.
+    private static final boolean[] BASE64URL = new boolean[128];
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) BASE64URL[c] = true;
+        for (char c = 'a'; c <= 'z'; c++) BASE64URL[c] = true;
+        for (char c = '0'; c <= '9'; c++) BASE64URL[c] = true;
+        BASE64URL['-'] = true;
+        BASE64URL['_'] = true;
+    }
 
     // Propiedades de JWT y seguridad (secret, issuer, TTLs, toggles).
     private final JwtProperties props;
     // Reloj inyectable para facilitar pruebas y control de tiempo.
     private final Clock clock;
+    // Tokens ya verificados: evita re-parsear y recalcular el HMAC del mismo token en cada request.
+    private final VerifiedTokenCache verifiedTokens;
+    // HS256: firmador, verificador y header se construyen una sola vez; son inmutables y seguros entre hilos.
+    // El firmador es null con ES256 y el verificador es null si no se aceptan tokens HS256.
+    private final JWSSigner hmacSigner;
+    private final JWSVerifier hmacVerifier;
+    private final JWSHeader hmacHeader;
+    // ES256: llaves del directorio con su verificador por kid (null en modo HS256).
+    private final JwtKeySet keySet;
+    // Timers creados una sola vez por resultado: registrar una medición no asigna memoria.
+    private final Timer verifyCached;
+    private final Timer verifyValid;
+    private final Timer verifyInvalid;
+    private final Timer verifyMalformed;
+    private final Timer issueTimer;
 
-    // Constructor principal usado por Spring (inyecta propiedades y reloj del sistema).
+    // Constructor principal usado por Spring (inyecta propiedades, métricas y reloj del sistema).
     @Autowired
-    public JwtService(JwtProperties props) {
-        this(props, Clock.systemUTC());
+    public JwtService(JwtProperties props, MeterRegistry registry) {
+        this(props, Clock.systemUTC(), registry);
     }
 
     // Constructor alternativo para pruebas (permite inyectar un Clock custom).
-    public JwtService(JwtProperties props, Clock clock) {
+    public JwtService(JwtProperties props, Clock clock, MeterRegistry registry) {
         this.props = props;
         this.clock = clock;
+        this.verifyCached = verifyTimer(registry, "cached");
+        this.verifyValid = verifyTimer(registry, "valid");
+        this.verifyInvalid = verifyTimer(registry, "invalid");
+        this.verifyMalformed = verifyTimer(registry, "malformed");
+        this.issueTimer = Timer.builder("jwt.issue")
+            .description("Construcción y firma de tokens")
+            .register(registry);
+        this.verifiedTokens = new VerifiedTokenCache(props.getJwt().getVerifiedCacheSize());
+        String algorithm = props.getJwt().getAlgorithm();
+        String secret;
+        if ("ES256".equalsIgnoreCase(algorithm)) {
+            this.keySet = new JwtKeySet(requireKeysDir(props), props.getJwt().isGenerateKeys());
+            secret = props.getJwt().isAcceptHs256() ? requireSecret(props) : null;
+        } else if ("HS256".equalsIgnoreCase(algorithm)) {
+            this.keySet = null;
+            secret = requireSecret(props);
+        } else {
+            throw new IllegalStateException("Unsupported JWT algorithm: " + algorithm);
+        }
+        try {
+            this.hmacSigner = keySet == null ? new MACSigner(secret) : null;
+            this.hmacVerifier = secret == null ? null : new MACVerifier(secret);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("JWT secret not configured properly", e);
+        }
+        this.hmacHeader = new JWSHeader.Builder(JWSAlgorithm.HS256).type(JOSEObjectType.JWT).build();
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("jwt.verify")
+            .description("Parseo y verificación de tokens recibidos")
+            .tag("outcome", outcome)
+            .register(registry);
     }
 
     /**
@@ -89,6 +165,7 @@ public class JwtService {
      * @return JWT firmado
      */
     private String generateToken(UserAccount user, long ttlSeconds) {
+        long start = System.nanoTime();
         try {
             Instant now = clock.instant();
             List<String> roles = mapRoles(user.getRoles());
@@ -99,80 +176,218 @@ public class JwtService {
                 .expirationTime(Date.from(now.plusSeconds(ttlSeconds)))
                 .jwtID(UUID.randomUUID().toString())
                 .claim("roles", roles)
+                .claim("rmask", RoleAuthorities.mask(user.getRoles()))
                 .claim("ver", user.getTokenVersion())
                 .build();
 
-            JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.HS256).type(JOSEObjectType.JWT).build();
-            SignedJWT jwt = new SignedJWT(header, claims);
-            JWSSigner signer = new MACSigner(getSecret());
-            jwt.sign(signer);
+            SignedJWT jwt;
+            if (keySet != null) {
+                // Firma con la llave vigente; el header ya trae su kid.
+                JwtKeySet.Snapshot keys = keySet.current();
+                jwt = new SignedJWT(keys.header(), claims);
+                jwt.sign(keys.signer());
+            } else {
+                jwt = new SignedJWT(hmacHeader, claims);
+                jwt.sign(hmacSigner);
+            }
             String token = jwt.serialize();
             log.debug("Issued token for {}: {}...", user.getUsername(), token.substring(0, Math.min(10, token.length())));
             return token;
         } catch (JOSEException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not generate token");
+        } finally {
+            issueTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     /**
      * Parsea y valida un JWT recibido: firma, expiración, issuer y claims.
+     * Variante con excepción para los endpoints de refresh/logout; el filtro usa {@link #validate(String)}.
      * @param token JWT recibido
      * @return JwtPayload con los datos extraídos y validados
      * @throws ResponseStatusException si el token es inválido o expirado
      */
     public JwtPayload parseAndValidate(String token) {
+        TokenValidation validation = validate(token);
+        if (!validation.isValid()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, validation.getStatus().getMessage());
+        }
+        return validation.getPayload();
+    }
+
+    /**
+     * Valida un JWT sin lanzar excepciones.
+     * Orden: chequeo estructural (sin asignaciones), caché de tokens verificados y verificación completa.
+     * Si el mismo token ya fue verificado y no ha expirado, devuelve el resultado cacheado.
+     * @param token JWT recibido (puede ser null)
+     * @return resultado con el payload si es válido o el motivo del rechazo
+     */
+    public TokenValidation validate(String token) {
+        long start = System.nanoTime();
+        if (!hasJwsShape(token)) {
+            verifyMalformed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return TokenValidation.MALFORMED;
+        }
+        TokenValidation cached = verifiedTokens.get(token, clock.millis());
+        if (cached != null) {
+            verifyCached.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+        TokenValidation validation = verify(token);
+        if (validation.isValid()) {
+            verifiedTokens.put(token, validation);
+            verifyValid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else {
+            verifyInvalid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return validation;
+    }
+
+    /**
+     * Forma de un JWS compacto: largo acotado y exactamente 3 segmentos no vacíos en base64url.
+     * Descarta la mayoría de los tokens basura sin parsear JSON ni calcular el HMAC.
+     */
+    static boolean hasJwsShape(String token) {
+        if (token == null) {
+            return false;
+        }
+        int length = token.length();
+        if (length < MIN_TOKEN_LENGTH || length > MAX_TOKEN_LENGTH) {
+            return false;
+        }
+        int dots = 0;
+        int segmentStart = 0;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (i == segmentStart || ++dots > 2) {
+                    return false;
+                }
+                segmentStart = i + 1;
+            } else if (c >= 128 || !BASE64URL[c]) {
+                return false;
+            }
+        }
+        return dots == 2 && segmentStart < length;
+    }
+
+    /**
+     * Verificación completa (sin caché): parseo, firma (HMAC o ECDSA según el header) y claims estándar.
+     * Nimbus solo lanza excepciones aquí para tokens con forma de JWS pero contenido inválido.
+     */
+    private TokenValidation verify(String token) {
         try {
             SignedJWT jwt = SignedJWT.parse(token);
-            JWSVerifier verifier = new MACVerifier(getSecret());
-            if (!jwt.verify(verifier)) {
-                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token signature");
+            JWSVerifier verifier = verifierFor(jwt.getHeader());
+            if (verifier == null || !jwt.verify(verifier)) {
+                return TokenValidation.INVALID_SIGNATURE;
             }
 
             JWTClaimsSet claims = jwt.getJWTClaimsSet();
-            validateStandardClaims(claims);
+            TokenValidation rejection = validateStandardClaims(claims);
+            if (rejection != null) {
+                return rejection;
+            }
 
             String subject = claims.getSubject();
             @SuppressWarnings("unchecked")
             List<String> roles = (List<String>) claims.getClaim("roles");
+            Integer rmask = claims.getIntegerClaim("rmask");
             Integer ver = claims.getIntegerClaim("ver");
             String jti = claims.getJWTID();
 
-            return new JwtPayload(subject, roles, ver == null ? 0 : ver, jti, claims.getExpirationTime());
-        } catch (ParseException | JOSEException e) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token");
+            List<String> roleNames = roles == null ? List.of() : List.copyOf(roles);
+            List<GrantedAuthority> authorities = rmask == null ? null : RoleAuthorities.forMask(rmask);
+            if (authorities == null) {
+                // Tokens emitidos antes del claim rmask, o con una máscara desconocida.
+                authorities = RoleAuthorities.forNames(roleNames);
+            }
+            return TokenValidation.valid(new JwtPayload(subject, roleNames, authorities, ver == null ? 0 : ver, jti, claims.getExpirationTime()));
+        } catch (ParseException | JOSEException | ClassCastException e) {
+            return TokenValidation.MALFORMED;
         }
     }
 
+    /**
+     * Verificador para el alg y kid del header. Null si el algoritmo no está habilitado o el kid no pertenece
+     * al keyset (por ejemplo, una llave ya retirada).
+     */
+    private JWSVerifier verifierFor(JWSHeader jwsHeader) {
+        JWSAlgorithm alg = jwsHeader.getAlgorithm();
+        if (JWSAlgorithm.ES256.equals(alg)) {
+            return keySet == null ? null : keySet.current().verifier(jwsHeader.getKeyID());
+        }
+        return JWSAlgorithm.HS256.equals(alg) ? hmacVerifier : null;
+    }
+
+    /**
+     * Relee el directorio de llaves ES256 para tomar rotaciones sin reiniciar.
+     * Si se retiró o cambió alguna llave se vacía el caché de tokens verificados, así sus tokens dejan de
+     * aceptarse de inmediato.
+     */
+    @Scheduled(fixedDelay = 30, initialDelay = 30, timeUnit = TimeUnit.SECONDS)
+    public void reloadKeys() {
+        if (keySet == null) {
+            return;
+        }
+        var before = keySet.current().publicKeys();
+        if (keySet.reload() && !keySet.current().publicKeys().entrySet().containsAll(before.entrySet())) {
+            verifiedTokens.clear();
+        }
+    }
+
+    /**
+     * JWKS con las llaves públicas vigentes, ya serializado.
+     * @return JSON del JWKS, o null en modo HS256 (no hay llaves públicas que publicar)
+     */
+    public String publicJwks() {
+        return keySet == null ? null : keySet.current().jwks();
+    }
+
     /**
      * Valida los claims estándar: issuer y expiración (con 30s de tolerancia).
      * @param claims claims extraídos del JWT
-     * @throws ResponseStatusException si el issuer es inválido o el token está expirado
+     * @return null si son válidos; si no, el motivo del rechazo
      */
-    private void validateStandardClaims(JWTClaimsSet claims) {
+    private TokenValidation validateStandardClaims(JWTClaimsSet claims) {
         Instant now = clock.instant();
         String issuer = claims.getIssuer();
         Date exp = claims.getExpirationTime();
         if (issuer == null || !issuer.equals(props.getJwt().getIssuer())) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid issuer");
+            return TokenValidation.INVALID_ISSUER;
         }
         if (exp == null || exp.toInstant().isBefore(now.minusSeconds(30))) { // 30s clock skew
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token expired");
+            return TokenValidation.EXPIRED;
         }
+        return null;
     }
 
     /**
      * Obtiene el secreto de firma HMAC desde las propiedades y valida su longitud.
+     * Se invoca una vez al construir el servicio, por lo que un secreto inválido detiene el arranque.
      * @return secreto de firma
-     * @throws ResponseStatusException si el secreto es nulo o demasiado corto
+     * @throws IllegalStateException si el secreto es nulo o demasiado corto
      */
-    private String getSecret() {
+    private static String requireSecret(JwtProperties props) {
         String secret = props.getJwt().getSecret();
         if (secret == null || secret.length() < 32) { // HS256 requires 256-bit key
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "JWT secret not configured properly");
+            throw new IllegalStateException("JWT secret not configured properly");
         }
         return secret;
     }
 
+    /**
+     * Directorio de llaves ES256 configurado en security.jwt.keys-dir.
+     * @throws IllegalStateException si no está configurado
+     */
+    private static Path requireKeysDir(JwtProperties props) {
+        String keysDir = props.getJwt().getKeysDir();
+        if (keysDir == null || keysDir.isBlank()) {
+            throw new IllegalStateException("security.jwt.keys-dir is required for ES256");
+        }
+        return Path.of(keysDir);
+    }
+
     /**
      * Convierte el set de roles (enum) a lista de strings para el claim "roles".
      */
@@ -182,18 +397,22 @@ public class JwtService {
 
     /**
      * Contenedor simple para los datos extraídos y validados de un JWT.
-     * Incluye: subject (usuario), roles, versión, jti y expiración.
+     * Incluye: subject (usuario), roles, authorities ya resueltas, versión, jti y expiración.
+     * Se comparte entre requests a través del caché de tokens verificados, por eso no debe mutarse.
      */
     public static class JwtPayload {
         private final String subject;
         private final List<String> roles;
+        private final List<GrantedAuthority> authorities;
         private final int version;
         private final String jti;
         private final Date expiresAt;
 
-        public JwtPayload(String subject, List<String> roles, int version, String jti, Date expiresAt) {
+        public JwtPayload(String subject, List<String> roles, List<GrantedAuthority> authorities, int version,
+                String jti, Date expiresAt) {
             this.subject = subject;
             this.roles = roles;
+            this.authorities = authorities;
             this.version = version;
             this.jti = jti;
             this.expiresAt = expiresAt;
@@ -201,6 +420,7 @@ public class JwtService {
 
         public String getSubject() { return subject; }
         public List<String> getRoles() { return roles; }
+        public List<GrantedAuthority> getAuthorities() { return authorities; }
         public int getVersion() { return version; }
         public String getJti() { return jti; }
         public Date getExpiresAt() { return expiresAt; }
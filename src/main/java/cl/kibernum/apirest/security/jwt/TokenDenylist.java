@@ -0,0 +1,447 @@
+package cl.kibernum.apirest.security.jwt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Denylist en memoria de tokens revocados, indexada por jti (security.jwt.denylist-enabled).
+ *
+ * Diseño:
+ * - El jti (UUID) se guarda como dos long; no se crean objetos por consulta.
+ * - La tabla está dividida en stripes con direccionamiento abierto (arrays primitivos). Cada stripe
+ *   se protege con un StampedLock: las consultas usan lectura optimista y casi nunca bloquean.
+ * - Cada entrada guarda el exp del token. Las entradas expiradas se purgan al crecer la tabla, así
+ *   la memoria queda acotada por los tokens revocados que siguen vivos.
+ * - Opcionalmente se respalda en un archivo local (security.jwt.denylist-file) para sobrevivir reinicios.
+ */
+@Component
+public class TokenDenylist {
+    private static final Logger log = LoggerFactory.getLogger(TokenDenylist.class);
+
+    // Cantidad de stripes (potencia de 2) para repartir la contención de escrituras.
+    private static final int STRIPES = 16;
+    // Capacidad inicial de cada stripe (potencia de 2).
+    private static final int INITIAL_CAPACITY = 64;
+    // Cabecera del archivo de respaldo ("JDL1").
+    private static final int FILE_MAGIC = 0x4A444C31;
+
+    private final boolean enabled;
+    private final Path file;
+    private final Clock clock;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    // Total de entradas: permite salir de inmediato cuando la denylist está vacía.
+    private final AtomicInteger size = new AtomicInteger();
+    // Indica si hubo cambios desde el último respaldo en archivo.
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    @Autowired
+    public TokenDenylist(JwtProperties props) {
+        this(props, Clock.systemUTC());
+    }
+
+    public TokenDenylist(JwtProperties props, Clock clock) {
+        this.enabled = props.getJwt().isDenylistEnabled();
+        String denylistFile = props.getJwt().getDenylistFile();
+        this.file = denylistFile == null || denylistFile.isBlank() ? null : Path.of(denylistFile);
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indica si el jti fue revocado. Camino caliente: sin locks bloqueantes ni asignaciones.
+     */
+    public boolean isRevoked(String jti) {
+        if (!enabled || jti == null || size.get() == 0) {
+            return false;
+        }
+        boolean uuid = isUuid(jti);
+        long msb = msb(jti, uuid);
+        long lsb = lsb(jti, uuid);
+        return stripeFor(msb, lsb).contains(msb, lsb);
+    }
+
+    /**
+     * Revoca el jti hasta su expiración. Si el token ya expiró no se guarda.
+     * @param jti identificador del token
+     * @param expiresAtMillis exp del token en epoch millis
+     */
+    public void revoke(String jti, long expiresAtMillis) {
+        if (!enabled || jti == null) {
+            return;
+        }
+        long now = clock.millis();
+        if (expiresAtMillis <= now) {
+            return;
+        }
+        boolean uuid = isUuid(jti);
+        long msb = msb(jti, uuid);
+        long lsb = lsb(jti, uuid);
+        size.addAndGet(stripeFor(msb, lsb).put(msb, lsb, expiresAtMillis, now));
+        dirty.set(true);
+    }
+
+    /**
+     * Cantidad de jti revocados actualmente en memoria (incluye expirados aún no purgados).
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Elimina las entradas cuyo token ya expiró.
+     * @return cantidad de entradas eliminadas
+     */
+    public int purgeExpired() {
+        long now = clock.millis();
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            removed += stripe.purge(now);
+        }
+        if (removed > 0) {
+            size.addAndGet(-removed);
+            dirty.set(true);
+        }
+        return removed;
+    }
+
+    /**
+     * Restaura la denylist desde el archivo de respaldo al arrancar (descarta entradas expiradas).
+     */
+    @PostConstruct
+    public void restore() {
+        if (!enabled || file == null || !Files.exists(file)) {
+            return;
+        }
+        long now = clock.millis();
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                log.warn("Ignoring denylist file {}: unknown format", file);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long msb = in.readLong();
+                long lsb = in.readLong();
+                long exp = in.readLong();
+                if (exp > now) {
+                    size.addAndGet(stripeFor(msb, lsb).put(msb, lsb, exp, now));
+                    restored++;
+                }
+            }
+            log.info("Restored {} revoked tokens from {}", restored, file);
+        } catch (IOException e) {
+            log.warn("Could not restore denylist from {}", file, e);
+        }
+    }
+
+    /**
+     * Respalda periódicamente la denylist en archivo si hubo cambios.
+     */
+    @Scheduled(fixedDelay = 60, initialDelay = 60, timeUnit = TimeUnit.SECONDS)
+    public void scheduledSnapshot() {
+        if (enabled) {
+            purgeExpired();
+            if (dirty.get()) {
+                snapshot();
+            }
+        }
+    }
+
+    /**
+     * Escribe todas las entradas vigentes en el archivo de respaldo (escritura atómica vía archivo temporal).
+     */
+    @PreDestroy
+    public void snapshot() {
+        if (!enabled || file == null) {
+            return;
+        }
+        dirty.set(false);
+        long now = clock.millis();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FILE_MAGIC);
+                long[][] live = new long[STRIPES][];
+                int total = 0;
+                for (int i = 0; i < STRIPES; i++) {
+                    live[i] = stripes[i].liveEntries(now);
+                    total += live[i].length / 3;
+                }
+                out.writeInt(total);
+                for (long[] entries : live) {
+                    for (long value : entries) {
+                        out.writeLong(value);
+                    }
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Could not write denylist snapshot to {}", file, e);
+        }
+    }
+
+    private Stripe stripeFor(long msb, long lsb) {
+        return stripes[(int) mix(msb, lsb) & (STRIPES - 1)];
+    }
+
+    private static long mix(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        return h ^ (h >>> 29);
+    }
+
+    // --- Conversión de jti a dos long sin crear objetos (UUID canónico; cualquier otro texto se hashea). ---
+
+    private static boolean isUuid(String jti) {
+        if (jti.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = jti.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : hexDigit(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long msb(String jti, boolean uuid) {
+        return uuid ? hex(jti, 0, 8) << 32 | hex(jti, 9, 13) << 16 | hex(jti, 14, 18) : fnv(jti, 0xcbf29ce484222325L);
+    }
+
+    private static long lsb(String jti, boolean uuid) {
+        long v = uuid ? hex(jti, 19, 23) << 48 | hex(jti, 24, 36) : fnv(jti, 0x84222325cbf29ce4L);
+        // (0, 0) marca posiciones vacías en la tabla.
+        return v == 0 ? 1 : v;
+    }
+
+    private static long hex(String s, int from, int to) {
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            v = v << 4 | hexDigit(s.charAt(i));
+        }
+        return v;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static long fnv(String s, long seed) {
+        long h = seed;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Tabla hash con direccionamiento abierto (sondeo lineal) sobre arrays primitivos.
+     * Las claves (msb, lsb) = (0, 0) indican posición vacía.
+     */
+    private static final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        private long[] msbs = new long[INITIAL_CAPACITY];
+        private long[] lsbs = new long[INITIAL_CAPACITY];
+        private long[] exps = new long[INITIAL_CAPACITY];
+        private int count;
+
+        boolean contains(long msb, long lsb) {
+            long stamp = lock.tryOptimisticRead();
+            boolean found = probe(msbs, lsbs, msb, lsb);
+            if (lock.validate(stamp)) {
+                return found;
+            }
+            stamp = lock.readLock();
+            try {
+                return probe(msbs, lsbs, msb, lsb);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private static boolean probe(long[] msbs, long[] lsbs, long msb, long lsb) {
+            int mask = msbs.length - 1;
+            if (lsbs.length != msbs.length) {
+                return false; // lectura optimista inconsistente; validate() la descarta
+            }
+            for (int i = index(msb, lsb, mask), n = 0; n <= mask; i = (i + 1) & mask, n++) {
+                long m = msbs[i];
+                long l = lsbs[i];
+                if (m == 0 && l == 0) {
+                    return false;
+                }
+                if (m == msb && l == lsb) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Inserta o actualiza la entrada.
+         * @return variación de la cantidad de entradas: +1 si es nueva, menos las expiradas que se purgaron
+         *         al crecer la tabla (puede ser 0 o negativa)
+         */
+        int put(long msb, long lsb, long exp, long now) {
+            long stamp = lock.writeLock();
+            try {
+                int purged = 0;
+                if ((count + 1) * 2 > msbs.length) {
+                    purged = purgeLocked(now);
+                    if ((count + 1) * 2 > msbs.length) {
+                        resize(msbs.length * 2);
+                    }
+                }
+                int mask = msbs.length - 1;
+                int i = index(msb, lsb, mask);
+                while (msbs[i] != 0 || lsbs[i] != 0) {
+                    if (msbs[i] == msb && lsbs[i] == lsb) {
+                        exps[i] = Math.max(exps[i], exp);
+                        return -purged;
+                    }
+                    i = (i + 1) & mask;
+                }
+                msbs[i] = msb;
+                lsbs[i] = lsb;
+                exps[i] = exp;
+                count++;
+                return 1 - purged;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int purge(long now) {
+            long stamp = lock.writeLock();
+            try {
+                return purgeLocked(now);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // Reconstruye la tabla sin las entradas expiradas (evita lápidas en el sondeo lineal).
+        private int purgeLocked(long now) {
+            int before = count;
+            int live = liveCount(now);
+            if (live == before) {
+                return 0;
+            }
+            int capacity = msbs.length;
+            while (capacity > INITIAL_CAPACITY && live * 4 < capacity) {
+                capacity >>= 1;
+            }
+            rebuild(capacity, now);
+            return before - count;
+        }
+
+        private int liveCount(long now) {
+            int live = 0;
+            for (int i = 0; i < msbs.length; i++) {
+                if ((msbs[i] != 0 || lsbs[i] != 0) && exps[i] > now) {
+                    live++;
+                }
+            }
+            return live;
+        }
+
+        private void resize(int capacity) {
+            rebuild(capacity, Long.MIN_VALUE);
+        }
+
+        private void rebuild(int capacity, long now) {
+            long[] oldMsbs = msbs;
+            long[] oldLsbs = lsbs;
+            long[] oldExps = exps;
+            long[] newMsbs = new long[capacity];
+            long[] newLsbs = new long[capacity];
+            long[] newExps = new long[capacity];
+            int mask = capacity - 1;
+            int live = 0;
+            for (int j = 0; j < oldMsbs.length; j++) {
+                long m = oldMsbs[j];
+                long l = oldLsbs[j];
+                if ((m == 0 && l == 0) || oldExps[j] <= now) {
+                    continue;
+                }
+                int i = index(m, l, mask);
+                while (newMsbs[i] != 0 || newLsbs[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                newMsbs[i] = m;
+                newLsbs[i] = l;
+                newExps[i] = oldExps[j];
+                live++;
+            }
+            msbs = newMsbs;
+            lsbs = newLsbs;
+            exps = newExps;
+            count = live;
+        }
+
+        // Copia plana (msb, lsb, exp) de las entradas vigentes, para el respaldo en archivo.
+        long[] liveEntries(long now) {
+            long stamp = lock.readLock();
+            try {
+                long[] out = new long[liveCount(now) * 3];
+                int k = 0;
+                for (int i = 0; i < msbs.length; i++) {
+                    if ((msbs[i] != 0 || lsbs[i] != 0) && exps[i] > now) {
+                        out[k++] = msbs[i];
+                        out[k++] = lsbs[i];
+                        out[k++] = exps[i];
+                    }
+                }
+                return out;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private static int index(long msb, long lsb, int mask) {
+            long h = mix(msb, lsb);
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
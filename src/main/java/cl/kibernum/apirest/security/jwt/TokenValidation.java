@@ -0,0 +1,50 @@
+package cl.kibernum.apirest.security.jwt;
+
+/**
+ * Resultado de validar un token sin usar excepciones.
+ *
+ * Los rechazos son instancias compartidas (una por motivo), así un token inválido no asigna memoria
+ * ni captura un stack trace. El resultado válido se guarda en el caché de tokens verificados y se
+ * reutiliza en cada acierto.
+ */
+public final class TokenValidation {
+
+    public enum Status {
+        VALID(null),
+        // No tiene forma de JWS compacto (3 segmentos base64url) o no se pudo parsear.
+        MALFORMED("Invalid token"),
+        INVALID_SIGNATURE("Invalid token signature"),
+        INVALID_ISSUER("Invalid issuer"),
+        EXPIRED("Token expired");
+
+        private final String message;
+
+        Status(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() { return message; }
+    }
+
+    static final TokenValidation MALFORMED = new TokenValidation(Status.MALFORMED, null);
+    static final TokenValidation INVALID_SIGNATURE = new TokenValidation(Status.INVALID_SIGNATURE, null);
+    static final TokenValidation INVALID_ISSUER = new TokenValidation(Status.INVALID_ISSUER, null);
+    static final TokenValidation EXPIRED = new TokenValidation(Status.EXPIRED, null);
+
+    private final Status status;
+    private final JwtService.JwtPayload payload;
+
+    private TokenValidation(Status status, JwtService.JwtPayload payload) {
+        this.status = status;
+        this.payload = payload;
+    }
+
+    static TokenValidation valid(JwtService.JwtPayload payload) {
+        return new TokenValidation(Status.VALID, payload);
+    }
+
+    public boolean isValid() { return status == Status.VALID; }
+    public Status getStatus() { return status; }
+    // Null si el token no es válido.
+    public JwtService.JwtPayload getPayload() { return payload; }
+}
@@ -0,0 +1,87 @@
+package cl.kibernum.apirest.security.jwt;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caché acotado de tokens ya verificados (firma + claims), indexado por un digest barato del token.
+ *
+ * Funcionamiento:
+ * - Tabla de tamaño fijo (potencia de 2) con mapeo directo: cada digest cae en una sola posición
+ *   y una entrada nueva reemplaza a la anterior. La memoria queda acotada sin hilos de limpieza.
+ * - En un acierto se compara el token completo, por lo que una colisión de digest nunca entrega
+ *   el payload de otro token.
+ * - Cada entrada es válida solo hasta el exp del token.
+ */
+class VerifiedTokenCache {
+
+    // Posiciones de la tabla (null si el caché está deshabilitado).
+    private final AtomicReferenceArray<Entry> slots;
+    // Máscara para convertir el digest en índice.
+    private final int mask;
+
+    VerifiedTokenCache(int requestedSize) {
+        if (requestedSize <= 0) {
+            this.slots = null;
+            this.mask = 0;
+        } else {
+            int size = Integer.highestOneBit(Math.min(requestedSize, 1 << 20) - 1) << 1;
+            this.slots = new AtomicReferenceArray<>(Math.max(size, 2));
+            this.mask = this.slots.length() - 1;
+        }
+    }
+
+    /**
+     * Devuelve el resultado cacheado si el token ya fue verificado y aún no expira; si no, null.
+     */
+    TokenValidation get(String token, long nowMillis) {
+        if (slots == null) {
+            return null;
+        }
+        long digest = digest(token);
+        Entry entry = slots.get(index(digest));
+        if (entry == null || entry.digest != digest || entry.expiresAtMillis <= nowMillis || !entry.token.equals(token)) {
+            return null;
+        }
+        return entry.validation;
+    }
+
+    /**
+     * Guarda un token recién verificado junto a su resultado (válido).
+     */
+    void put(String token, TokenValidation validation) {
+        JwtService.JwtPayload payload = validation.getPayload();
+        if (slots == null || payload == null || payload.getExpiresAt() == null) {
+            return;
+        }
+        long digest = digest(token);
+        slots.set(index(digest), new Entry(digest, token, validation, payload.getExpiresAt().getTime()));
+    }
+
+    /**
+     * Descarta todos los resultados, por ejemplo al retirar una llave de firma.
+     */
+    void clear() {
+        if (slots == null) {
+            return;
+        }
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    private int index(long digest) {
+        return (int) (digest ^ (digest >>> 32)) & mask;
+    }
+
+    // FNV-1a de 64 bits sobre los caracteres del token: sin asignaciones y suficiente para dispersar.
+    private static long digest(String token) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = token.length(); i < n; i++) {
+            h ^= token.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private record Entry(long digest, String token, TokenValidation validation, long expiresAtMillis) { }
+}
@@ -1,12 +1,22 @@
 package cl.kibernum.apirest.security.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import cl.kibernum.apirest.security.domain.UserAccount;
+import cl.kibernum.apirest.security.dto.UserAccountView;
 
 public interface UserAccountRepository extends JpaRepository<UserAccount, Long> {
+    // Proyección para listados: solo las columnas públicas, sin password ni roles (EAGER en la entidad).
+    String SELECT_VIEW = "select new cl.kibernum.apirest.security.dto.UserAccountView(u.id, u.username, u.nombre,"
+            + " u.apellido, u.email, u.active) from UserAccount u";
     
     // Método para encontrar un usuario por su nombre de usuario.
     Optional<UserAccount> findByUsername(String username);
@@ -18,5 +28,25 @@ public interface UserAccountRepository extends JpaRepository<UserAccount, Long>
     void deleteByUsername(String username);
 
     Optional<UserAccount> findByEmailAndActiveTrue(String email);
+
+    // Versión vigente de tokens del usuario (-1 si está inactivo), sin cargar la entidad ni sus roles.
+    @Query("select case when u.active = true then u.tokenVersion else -1 end from UserAccount u where u.username = :username")
+    Optional<Integer> findEffectiveTokenVersion(@Param("username") String username);
+
+    // Listado de administración: filtros opcionales; el orden y la página vienen en pageable.
+    // emailPrefix ya viene con los comodines escapados y terminado en '%', así usa el índice único de email.
+    @Query(value = SELECT_VIEW + " where (:active is null or u.active = :active)"
+            + " and (:emailPrefix is null or u.email like :emailPrefix escape '\\')",
+            countQuery = "select count(u) from UserAccount u where (:active is null or u.active = :active)"
+            + " and (:emailPrefix is null or u.email like :emailPrefix escape '\\')")
+    Page<UserAccountView> findViews(@Param("active") Boolean active, @Param("emailPrefix") String emailPrefix,
+            Pageable pageable);
+
+    // Roles de todos los usuarios de una página en una sola consulta: filas (userId, role).
+    @Query("select u.id, r from UserAccount u join u.roles r where u.id in :ids")
+    List<Object[]> findRolesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_VIEW + " where u.id = :id")
+    Optional<UserAccountView> findViewById(@Param("id") Long id);
   
 }
@@ -1,15 +1,18 @@
 package cl.kibernum.apirest.security.services;
 
-import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import cl.kibernum.apirest.security.domain.UserAccount;
 import cl.kibernum.apirest.security.dto.UserAccountDto;
+import cl.kibernum.apirest.security.dto.UserAccountView;
 
 public interface IUserAccountService {
-    List<UserAccount> getAll();
+    Page<UserAccountView> findPage(Boolean active, String emailPrefix, Pageable pageable);
 
-    Optional<UserAccount> getById(Long id);
+    Optional<UserAccountView> getById(Long id);
 
     UserAccount create(UserAccountDto dDto);
 
@@ -0,0 +1,114 @@
+package cl.kibernum.apirest.security.services;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import cl.kibernum.apirest.security.jwt.JwtProperties;
+import cl.kibernum.apirest.security.repository.UserAccountRepository;
+
+/**
+ * Índice en memoria username -> tokenVersion vigente, para validar el claim "ver" sin consultar la base.
+ *
+ * - Se llena de forma perezosa: la primera consulta por un usuario lee solo la versión (sin roles).
+ * - Un usuario inactivo o inexistente se guarda como REVOKED: ninguno de sus tokens es válido.
+ * - Cuando se persiste un cambio del usuario (alta, incrementTokenVersion, desactivateUser, etc.)
+ *   UserAccountTokenListener invalida la entrada después del commit y la próxima consulta la recarga.
+ * - Acotado por tamaño (security.jwt.version-cache-size, desalojo FIFO aproximado) y por TTL
+ *   (security.jwt.version-cache-ttl): un cambio hecho fuera de JPA se toma a más tardar al vencer la entrada.
+ */
+@Component
+public class TokenVersionIndex {
+    public static final int REVOKED = -1;
+
+    // Al superar maxSize se revisa esta cantidad de entradas y se desaloja la más antigua.
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final UserAccountRepository userAccountRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, Entry> versions = new ConcurrentHashMap<>();
+    // Se incrementa en cada invalidación; descarta cargas que compiten con una escritura.
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public TokenVersionIndex(UserAccountRepository userAccountRepository, JwtProperties props) {
+        this.userAccountRepository = userAccountRepository;
+        this.maxSize = Math.max(1, props.getJwt().getVersionCacheSize());
+        this.ttlNanos = props.getJwt().getVersionCacheTtl().toNanos();
+    }
+
+    /**
+     * Indica si la versión de token corresponde a la versión vigente de un usuario activo.
+     */
+    public boolean isCurrent(String username, int version) {
+        if (username == null) {
+            return false;
+        }
+        Entry entry = versions.get(username);
+        int current;
+        if (entry != null && System.nanoTime() - entry.expiresAt < 0) {
+            current = entry.version;
+        } else {
+            current = load(username);
+        }
+        return current != REVOKED && current == version;
+    }
+
+    private int load(String username) {
+        long stamp = invalidations.get();
+        int version = userAccountRepository.findEffectiveTokenVersion(username).orElse(REVOKED);
+        if (stamp == invalidations.get()
+                && versions.put(username, new Entry(version, System.nanoTime() + ttlNanos)) == null) {
+            evictOverflow();
+        }
+        return version;
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    private void evictOverflow() {
+        while (versions.size() > maxSize) {
+            Map.Entry<String, Entry> oldest = null;
+            Iterator<Map.Entry<String, Entry>> it = versions.entrySet().iterator();
+            for (int i = 0; i < EVICTION_SAMPLE && it.hasNext(); i++) {
+                Map.Entry<String, Entry> candidate = it.next();
+                if (oldest == null || candidate.getValue().expiresAt - oldest.getValue().expiresAt < 0) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            versions.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    public void invalidate(String username) {
+        invalidations.incrementAndGet();
+        versions.remove(username);
+    }
+
+    /**
+     * Invalida la entrada ahora y nuevamente al terminar la transacción actual, si existe.
+     */
+    public void invalidateAfterCommit(String username) {
+        invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(username);
+                }
+            });
+        }
+    }
+
+    private record Entry(int version, long expiresAt) { }
+}
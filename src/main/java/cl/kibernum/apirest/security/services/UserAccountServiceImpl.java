@@ -1,32 +1,90 @@
 package cl.kibernum.apirest.security.services;
 
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import cl.kibernum.apirest.security.domain.Role;
 import cl.kibernum.apirest.security.domain.UserAccount;
+import cl.kibernum.apirest.exception.InvalidRequestException;
 import cl.kibernum.apirest.exception.ResourceNotFoundException;
 import cl.kibernum.apirest.security.repository.*;
 import cl.kibernum.apirest.security.dto.UserAccountDto;
+import cl.kibernum.apirest.security.dto.UserAccountView;
 
 @Service
 public class UserAccountServiceImpl implements IUserAccountService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final Set<String> SORTABLE = Set.of("id", "username", "nombre", "apellido", "email", "active");
+    private static final Pattern LIKE_WILDCARDS = Pattern.compile("[\\\\%_]");
+
     private final UserAccountRepository userAccountRepository;
 
     public UserAccountServiceImpl(UserAccountRepository userAccountRepository) {
         this.userAccountRepository = userAccountRepository;
     }
 
+    /**
+     * Página de usuarios para la administración. Se ejecutan tres consultas por página sin importar su tamaño:
+     * la de la página (proyección), el conteo y los roles de todos los usuarios de la página.
+     */
     @Override
-    public List<UserAccount> getAll() {
-        return userAccountRepository.findAll();
+    @Transactional(readOnly = true)
+    public Page<UserAccountView> findPage(Boolean active, String emailPrefix, Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new InvalidRequestException("No se puede ordenar por " + order.getProperty());
+            }
+        }
+        Pageable page = pageable.getPageSize() > MAX_PAGE_SIZE
+                ? PageRequest.of(pageable.getPageNumber(), MAX_PAGE_SIZE, pageable.getSort())
+                : pageable;
+        Page<UserAccountView> views = userAccountRepository.findViews(active, likePrefix(emailPrefix), page);
+        loadRoles(views.getContent());
+        return views;
     }
 
     @Override
-    public Optional<UserAccount> getById(Long id) {
-        return userAccountRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<UserAccountView> getById(Long id) {
+        Optional<UserAccountView> view = userAccountRepository.findViewById(id);
+        view.ifPresent(v -> loadRoles(List.of(v)));
+        return view;
+    }
+
+    // Prefijo para LIKE con los comodines del usuario escapados ("a_b" no debe calzar con "axb").
+    private static String likePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        return LIKE_WILDCARDS.matcher(prefix.trim()).replaceAll("\\\\$0") + "%";
+    }
+
+    private void loadRoles(List<UserAccountView> views) {
+        if (views.isEmpty()) {
+            return;
+        }
+        Map<Long, UserAccountView> byId = new HashMap<>();
+        for (UserAccountView view : views) {
+            byId.put(view.getId(), view);
+        }
+        Map<Long, Set<Role>> roles = new HashMap<>();
+        for (Object[] row : userAccountRepository.findRolesByIdIn(byId.keySet())) {
+            roles.computeIfAbsent((Long) row[0], id -> EnumSet.noneOf(Role.class)).add((Role) row[1]);
+        }
+        roles.forEach((id, userRoles) -> byId.get(id).setRoles(userRoles));
     }
 
     @Override
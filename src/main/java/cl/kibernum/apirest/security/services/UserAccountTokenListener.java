@@ -0,0 +1,31 @@
+package cl.kibernum.apirest.security.services;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import cl.kibernum.apirest.security.domain.UserAccount;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de UserAccount: mantiene TokenVersionIndex al día con cada cambio persistido
+ * (alta, incremento de tokenVersion, desactivación, eliminación). El alta también invalida porque
+ * una consulta previa por ese username pudo dejarlo en el índice como inexistente (REVOKED).
+ */
+@Component
+public class UserAccountTokenListener {
+    private final TokenVersionIndex tokenVersionIndex;
+
+    // @Lazy evita el ciclo EntityManagerFactory -> listener -> índice -> repositorio.
+    public UserAccountTokenListener(@Lazy TokenVersionIndex tokenVersionIndex) {
+        this.tokenVersionIndex = tokenVersionIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(UserAccount userAccount) {
+        tokenVersionIndex.invalidateAfterCommit(userAccount.getUsername());
+    }
+}
@@ -0,0 +1,85 @@
+package cl.kibernum.apirest.services;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import cl.kibernum.apirest.repositories.ProductoRepository;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Contador global de revisiones del catálogo. Cada alta o modificación de un producto recibe una revisión mayor
+ * a todas las anteriores (columna productos.revision), lo que permite pedir solo los cambios desde una revisión.
+ *
+ * Las revisiones se asignan antes del commit, así que una transacción lenta puede confirmar una revisión menor
+ * después que otra más rápida. Por eso se exponen solo hasta watermark(): la mayor revisión bajo la cual
+ * ya no quedan transacciones en curso.
+ *
+ * Asignar una revisión y registrarla como en curso es un solo paso bajo un ReentrantLock (no synchronized):
+ * todas las escrituras pasan por aquí y, con hilos virtuales, un monitor fijaría el hilo a su portador.
+ */
+@Component
+public class CatalogRevision {
+    private final ProductoRepository productoRepository;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Protegido por lock.
+    private long current;
+    // Revisiones asignadas cuya transacción aún no termina.
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    public CatalogRevision(ProductoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        long max = productoRepository.findMaxRevision();
+        lock.lock();
+        try {
+            current = max;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Asigna la siguiente revisión; queda "en curso" hasta que termina la transacción actual.
+     */
+    public long next() {
+        long revision;
+        lock.lock();
+        try {
+            revision = ++current;
+            inFlight.add(revision);
+        } finally {
+            lock.unlock();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    inFlight.remove(revision);
+                }
+            });
+        } else {
+            inFlight.remove(revision);
+        }
+        return revision;
+    }
+
+    /**
+     * Mayor revisión segura de publicar: todo cambio con revisión menor o igual ya terminó su transacción.
+     */
+    public long watermark() {
+        lock.lock();
+        try {
+            return inFlight.isEmpty() ? current : inFlight.first() - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,9 +1,34 @@
 package cl.kibernum.apirest.services;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import cl.kibernum.apirest.dto.ChangesPage;
+import cl.kibernum.apirest.dto.CursorPage;
+import cl.kibernum.apirest.dto.ProductoFilter;
+import cl.kibernum.apirest.dto.ProductoView;
+import cl.kibernum.apirest.dto.SearchResult;
+import cl.kibernum.apirest.dto.StockDeltaDto;
 import cl.kibernum.apirest.entities.Producto;
 
 public interface IProductoService {
      List<Producto> findAllByActiveTrue();  
+
+     CursorPage<ProductoView> findPage(String after, int limit);
+
+     CursorPage<ProductoView> findActivePage(String after, int limit);
+
+     CursorPage<ProductoView> findPage(String after, int limit, ProductoFilter filter);
+
+     CursorPage<ProductoView> findActivePage(String after, int limit, ProductoFilter filter);
+
+     long streamAll(Consumer<ProductoView> action);
+
+     ChangesPage<ProductoView> findChanges(long since, int limit);
+
+     SearchResult<ProductoView> search(String query, int limit);
+
+     void adjustStock(int id, int delta);
+
+     void adjustStock(List<StockDeltaDto> deltas);
 }
@@ -0,0 +1,144 @@
+package cl.kibernum.apirest.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.kibernum.apirest.config.CatalogProperties;
+import cl.kibernum.apirest.dto.BatchItemResult;
+import cl.kibernum.apirest.dto.BatchResult;
+import cl.kibernum.apirest.dto.ProductoDto;
+import cl.kibernum.apirest.entities.Producto;
+import cl.kibernum.apirest.exception.InvalidRequestException;
+import cl.kibernum.apirest.repositories.ProductoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Alta/actualización masiva de productos por nombre.
+ * Cada bloque de chunkSize productos usa una sola consulta "nombre IN (...)" y una transacción propia;
+ * los INSERT/UPDATE se envían en lotes JDBC (hibernate.jdbc.batch_size) gracias al id por secuencia.
+ */
+@Service
+public class ProductoBatchService {
+    private final ProductoRepository productoRepository;
+    private final ProductoCache productoCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final CatalogProperties.Batch properties;
+    private final EntityManager entityManager;
+
+    public ProductoBatchService(ProductoRepository productoRepository, ProductoCache productoCache,
+            PlatformTransactionManager transactionManager, Validator validator, CatalogProperties catalogProperties,
+            EntityManager entityManager) {
+        this.productoRepository = productoRepository;
+        this.entityManager = entityManager;
+        this.productoCache = productoCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.properties = catalogProperties.getBatch();
+    }
+
+    public BatchResult upsertAll(List<ProductoDto> productos) {
+        if (productos.size() > properties.getMaxItems()) {
+            throw new InvalidRequestException("El lote supera el máximo de " + properties.getMaxItems() + " productos");
+        }
+        int chunkSize = properties.getChunkSize();
+        List<BatchItemResult> results = new ArrayList<>(productos.size());
+        for (int from = 0; from < productos.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, productos.size());
+            results.addAll(upsertChunk(productos.subList(from, to), from));
+        }
+        return new BatchResult(results);
+    }
+
+    /**
+     * Procesa un bloque en su propia transacción. Si el commit falla solo se marcan como error
+     * los productos de este bloque; los bloques anteriores ya quedaron confirmados.
+     */
+    public List<BatchItemResult> upsertChunk(List<ProductoDto> chunk, int offset) {
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+        List<Integer> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductoDto dto = chunk.get(i);
+            String error = dto == null ? "Producto vacío" : validate(dto);
+            if (error != null) {
+                results[i] = BatchItemResult.error(offset + i, dto == null ? null : dto.getNombre(), error);
+            } else {
+                valid.add(i);
+            }
+        }
+        if (valid.isEmpty()) {
+            return List.of(results);
+        }
+
+        Producto[] entities = new Producto[chunk.size()];
+        boolean[] created = new boolean[chunk.size()];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> nombres = valid.stream().map(i -> chunk.get(i).getNombre()).collect(Collectors.toSet());
+                Map<String, Producto> byNombre = new HashMap<>();
+                for (Producto existing : productoRepository.findByNombreIn(nombres)) {
+                    byNombre.put(existing.getNombre(), existing);
+                }
+                List<Producto> toInsert = new ArrayList<>();
+                for (int i : valid) {
+                    ProductoDto dto = chunk.get(i);
+                    Producto producto = byNombre.get(dto.getNombre());
+                    if (producto == null) {
+                        producto = new Producto(dto.getNombre(), dto.getDescripcion(), dto.getStock(), dto.getPrecio());
+                        byNombre.put(dto.getNombre(), producto);
+                        toInsert.add(producto);
+                        created[i] = true;
+                    } else {
+                        producto.setDescripcion(dto.getDescripcion());
+                        producto.setStock(dto.getStock());
+                        producto.setPrecio(dto.getPrecio());
+                        if (producto.getId() != 0) {
+                            productoCache.invalidateAfterCommit(producto.getId());
+                        }
+                    }
+                    entities[i] = producto;
+                }
+                productoRepository.saveAll(toInsert);
+                // Con open-in-view el EntityManager vive toda la request: se vacía por bloque para que no crezca.
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            String error = "Bloque rechazado por la base de datos: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (int i : valid) {
+                results[i] = BatchItemResult.error(offset + i, chunk.get(i).getNombre(), error);
+            }
+            return List.of(results);
+        }
+
+        for (int i : valid) {
+            Producto producto = entities[i];
+            results[i] = created[i]
+                    ? BatchItemResult.created(offset + i, producto.getNombre(), producto.getId())
+                    : BatchItemResult.updated(offset + i, producto.getNombre(), producto.getId());
+        }
+        return List.of(results);
+    }
+
+    private String validate(ProductoDto dto) {
+        Set<ConstraintViolation<ProductoDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,154 @@
+package cl.kibernum.apirest.services;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import cl.kibernum.apirest.config.CatalogProperties;
+import cl.kibernum.apirest.entities.Producto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Caché en memoria de productos por id, acotado por tamaño y por TTL.
+ *
+ * Las lecturas no toman locks. Las escrituras del servicio invalidan la entrada después del commit,
+ * y una carga que corre en paralelo con una invalidación no se guarda, para no reinstalar datos viejos.
+ */
+@Component
+public class ProductoCache implements MeterBinder {
+    private static final String CACHE_NAME = "productos";
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // Al superar maxSize se revisa esta cantidad de entradas y se desaloja la más antigua (FIFO aproximado).
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+    // Se incrementa en cada invalidación; permite descartar cargas que compiten con una escritura.
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ProductoCache(CatalogProperties props) {
+        this.enabled = props.getCache().isEnabled();
+        this.maxSize = Math.max(1, props.getCache().getMaxSize());
+        this.ttlNanos = props.getCache().getTtl().toNanos();
+    }
+
+    /**
+     * Devuelve el producto en caché o lo carga con el loader (típicamente el repositorio) y lo guarda.
+     */
+    public Optional<Producto> get(int id, IntFunction<Optional<Producto>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        Entry entry = entries.get(id);
+        long now = System.nanoTime();
+        if (entry != null) {
+            if (now - entry.expiresAt < 0) {
+                hits.increment();
+                return Optional.of(entry.producto);
+            }
+            if (entries.remove(id, entry)) {
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        long stamp = invalidations.get();
+        Optional<Producto> loaded = loader.apply(id);
+        if (loaded.isPresent() && stamp == invalidations.get()) {
+            put(loaded.get());
+        }
+        return loaded;
+    }
+
+    public void put(Producto producto) {
+        if (!enabled) {
+            return;
+        }
+        if (entries.put(producto.getId(), new Entry(producto, System.nanoTime() + ttlNanos)) == null) {
+            evictOverflow();
+        }
+    }
+
+    public void invalidate(int id) {
+        invalidations.incrementAndGet();
+        entries.remove(id);
+    }
+
+    /**
+     * Invalida la entrada cuando la transacción actual confirma (o de inmediato si no hay transacción).
+     */
+    public void invalidateAfterCommit(int id) {
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictOverflow() {
+        while (entries.size() > maxSize) {
+            Map.Entry<Integer, Entry> oldest = null;
+            Iterator<Map.Entry<Integer, Entry>> it = entries.entrySet().iterator();
+            for (int i = 0; i < EVICTION_SAMPLE && it.hasNext(); i++) {
+                Map.Entry<Integer, Entry> candidate = it.next();
+                if (oldest == null || candidate.getValue().expiresAt - oldest.getValue().expiresAt < 0) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            if (entries.remove(oldest.getKey(), oldest.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Lecturas del caché de productos, por resultado").register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Lecturas del caché de productos, por resultado").register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", CACHE_NAME)
+                .description("Entradas desalojadas por tamaño o TTL").register(registry);
+        Gauge.builder("cache.size", entries, ConcurrentHashMap::size)
+                .tag("cache", CACHE_NAME)
+                .description("Cantidad de productos en caché").register(registry);
+    }
+
+    private record Entry(Producto producto, long expiresAt) { }
+}
@@ -0,0 +1,49 @@
+package cl.kibernum.apirest.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import cl.kibernum.apirest.exception.InvalidRequestException;
+
+/**
+ * Codifica la posición de una página (último id entregado) como cursor opaco para el cliente.
+ * Solo se aceptan los cursores que encode puede producir: id entre 0 e Integer.MAX_VALUE - 1 escrito
+ * en forma canónica. Así el id siguiente (id + 1) nunca desborda ni es negativo.
+ */
+final class ProductoCursor {
+    private static final String PREFIX = "p:";
+
+    private ProductoCursor() { }
+
+    static String encode(int lastId) {
+        if (!isValid(lastId)) {
+            throw new IllegalArgumentException("Cursor id out of range: " + lastId);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static int decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!raw.startsWith(PREFIX)) {
+                throw new InvalidRequestException("Cursor inválido");
+            }
+            int lastId = Integer.parseInt(raw.substring(PREFIX.length()));
+            // Rechaza "+5", "007" y similares: el cursor debe ser idéntico al que genera encode.
+            if (!isValid(lastId) || !raw.equals(PREFIX + lastId)) {
+                throw new InvalidRequestException("Cursor inválido");
+            }
+            return lastId;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Cursor inválido");
+        }
+    }
+
+    private static boolean isValid(int lastId) {
+        return lastId >= 0 && lastId < Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,203 @@
+package cl.kibernum.apirest.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import cl.kibernum.apirest.config.CatalogProperties;
+import cl.kibernum.apirest.dto.BatchItemResult;
+import cl.kibernum.apirest.dto.ImportEvent;
+import cl.kibernum.apirest.dto.ProductoDto;
+import cl.kibernum.apirest.exception.InvalidRequestException;
+
+/**
+ * Importación de archivos grandes de productos (CSV o NDJSON) leyendo la entrada línea a línea.
+ * Solo se mantiene en memoria el bloque en curso; cada bloque se confirma por separado mediante
+ * {@link ProductoBatchService#upsertChunk}, por lo que un bloque fallido no revierte los anteriores.
+ * La siguiente lectura ocurre después del commit, así el ritmo de la base regula cuánto se lee del cliente.
+ */
+@Service
+public class ProductoImportService {
+    public enum Format { CSV, NDJSON }
+
+    private static final String[] CSV_COLUMNS = {"nombre", "descripcion", "stock", "precio"};
+
+    private final ProductoBatchService productoBatchService;
+    private final ObjectReader dtoReader;
+    private final CatalogProperties.Batch properties;
+
+    public ProductoImportService(ProductoBatchService productoBatchService, ObjectMapper objectMapper,
+            CatalogProperties catalogProperties) {
+        this.productoBatchService = productoBatchService;
+        this.dtoReader = objectMapper.readerFor(ProductoDto.class);
+        this.properties = catalogProperties.getBatch();
+    }
+
+    /**
+     * Procesa toda la entrada y publica en events los errores por fila y el avance de cada bloque.
+     * Retorna el resumen final (también publicado como evento DONE).
+     */
+    public ImportEvent importProductos(BufferedReader reader, Format format, Consumer<ImportEvent> events) throws IOException {
+        long lineNumber = 0;
+        int[] columns = null;
+        if (format == Format.CSV) {
+            String header = reader.readLine();
+            lineNumber++;
+            columns = csvColumns(header);
+        }
+
+        int chunkSize = properties.getChunkSize();
+        List<ProductoDto> chunk = new ArrayList<>(chunkSize);
+        long[] chunkLines = new long[chunkSize];
+        Counters counters = new Counters();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ProductoDto dto;
+            try {
+                dto = format == Format.CSV ? parseCsv(line, columns) : dtoReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                counters.rowFailed(events, ImportEvent.error(lineNumber, null, "JSON inválido: " + e.getOriginalMessage()));
+                continue;
+            } catch (IllegalArgumentException e) {
+                counters.rowFailed(events, ImportEvent.error(lineNumber, null, e.getMessage()));
+                continue;
+            }
+            chunkLines[chunk.size()] = lineNumber;
+            chunk.add(dto);
+            if (chunk.size() == chunkSize) {
+                flushChunk(chunk, chunkLines, counters, events);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flushChunk(chunk, chunkLines, counters, events);
+        }
+
+        ImportEvent done = ImportEvent.done(counters.processed, counters.created, counters.updated, counters.failed);
+        events.accept(done);
+        return done;
+    }
+
+    private void flushChunk(List<ProductoDto> chunk, long[] chunkLines, Counters counters, Consumer<ImportEvent> events) {
+        for (BatchItemResult result : productoBatchService.upsertChunk(chunk, 0)) {
+            switch (result.getStatus()) {
+                case CREATED -> counters.created++;
+                case UPDATED -> counters.updated++;
+                case ERROR -> {
+                    counters.failed++;
+                    events.accept(ImportEvent.error(chunkLines[result.getIndex()], result.getNombre(), result.getError()));
+                }
+            }
+        }
+        counters.processed += chunk.size();
+        chunk.clear();
+        events.accept(ImportEvent.progress(counters.processed, counters.created, counters.updated, counters.failed));
+    }
+
+    // Posición de cada columna esperada dentro del encabezado, en el orden de CSV_COLUMNS.
+    private static int[] csvColumns(String header) {
+        if (header == null) {
+            throw new InvalidRequestException("El archivo CSV está vacío");
+        }
+        List<String> names = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        int[] columns = new int[CSV_COLUMNS.length];
+        for (int c = 0; c < CSV_COLUMNS.length; c++) {
+            columns[c] = -1;
+            for (int i = 0; i < names.size(); i++) {
+                if (names.get(i).trim().toLowerCase(Locale.ROOT).equals(CSV_COLUMNS[c])) {
+                    columns[c] = i;
+                }
+            }
+            if (columns[c] < 0) {
+                throw new InvalidRequestException("Encabezado CSV inválido: falta la columna " + CSV_COLUMNS[c]);
+            }
+        }
+        return columns;
+    }
+
+    private static ProductoDto parseCsv(String line, int[] columns) {
+        List<String> fields = splitCsv(line);
+        String nombre = field(fields, columns[0]);
+        String descripcion = field(fields, columns[1]);
+        return new ProductoDto(nombre, descripcion,
+                parseNumber(field(fields, columns[2]), "stock", true).intValue(),
+                parseNumber(field(fields, columns[3]), "precio", false).doubleValue());
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column < fields.size() ? fields.get(column) : null;
+    }
+
+    private static Number parseNumber(String value, String column, boolean integer) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(column + ": valor requerido");
+        }
+        try {
+            return integer ? Integer.parseInt(value.trim()) : Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + ": valor numérico inválido '" + value + "'");
+        }
+    }
+
+    // Separación RFC 4180 de una línea: comillas dobles para campos con comas y "" como comilla escapada.
+    // No se admiten saltos de línea dentro de un campo.
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(ch);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Comillas sin cerrar en la línea");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static final class Counters {
+        long processed;
+        long created;
+        long updated;
+        long failed;
+
+        // Filas que no llegan a un bloque (no se pudieron leer) igual cuentan como procesadas.
+        void rowFailed(Consumer<ImportEvent> events, ImportEvent error) {
+            processed++;
+            failed++;
+            events.accept(error);
+        }
+    }
+}
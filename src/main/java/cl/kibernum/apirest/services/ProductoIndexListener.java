@@ -0,0 +1,31 @@
+package cl.kibernum.apirest.services;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import cl.kibernum.apirest.entities.Producto;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de Producto: mantiene al día los índices en memoria (búsqueda por texto y rangos de precio/stock)
+ * con cada alta, modificación o desactivación.
+ */
+@Component
+public class ProductoIndexListener {
+    private final ProductoSearchIndex searchIndex;
+    private final ProductoRangeIndex rangeIndex;
+
+    // @Lazy evita el ciclo EntityManagerFactory -> listener -> índices -> servicio -> repositorio.
+    public ProductoIndexListener(@Lazy ProductoSearchIndex searchIndex, @Lazy ProductoRangeIndex rangeIndex) {
+        this.searchIndex = searchIndex;
+        this.rangeIndex = rangeIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(Producto producto) {
+        searchIndex.indexAfterCommit(producto);
+        rangeIndex.indexAfterCommit(producto);
+    }
+}
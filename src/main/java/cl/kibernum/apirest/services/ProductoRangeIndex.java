@@ -0,0 +1,403 @@
+package cl.kibernum.apirest.services;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import cl.kibernum.apirest.dto.ProductoView;
+import cl.kibernum.apirest.entities.Producto;
+import cl.kibernum.apirest.repositories.ProductoRepository;
+
+/**
+ * Índices en memoria por precio y por stock para filtrar el listado de productos por rango.
+ *
+ * Cada índice es un par de arreglos primitivos ordenados por (valor, id): un rango se resuelve con dos búsquedas
+ * binarias y el tramo resultante se marca en un BitSet por id. Los filtros se combinan con BitSet.and, incluido
+ * el conjunto de productos activos, sin objetos intermedios.
+ *
+ * Un cambio de valor mueve la entrada solo entre su posición vieja y la nueva, así un ajuste chico de stock
+ * desplaza pocas posiciones. Se construye al arrancar y se actualiza después de cada commit; mientras no está listo
+ * el filtro se resuelve en la base recorriendo la clave primaria.
+ *
+ * Los callbacks de commit de transacciones concurrentes pueden ejecutarse en otro orden que sus commits. Por eso
+ * cada cambio trae valores absolutos con la versión (@Version) de la fila, y se ignora uno más antiguo que el que
+ * ya tiene el índice.
+ */
+@Component
+public class ProductoRangeIndex {
+    private static final Logger log = LoggerFactory.getLogger(ProductoRangeIndex.class);
+
+    private final ProductoServiceImpl productoService;
+    private final ProductoRepository productoRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Protegidos por lock. Valores actuales por id y conjuntos de ids.
+    private double[] priceById = new double[0];
+    private int[] stockById = new int[0];
+    private long[] versionById = new long[0];
+    private final BitSet present = new BitSet();
+    private final BitSet active = new BitSet();
+    // Índices ordenados por (valor, id); size entradas válidas en cada uno.
+    private double[] priceKeys = new double[0];
+    private int[] priceIds = new int[0];
+    private int[] stockKeys = new int[0];
+    private int[] stockIds = new int[0];
+    private int size;
+
+    private volatile boolean ready;
+    // Ids modificados mientras se construye el índice; se releen de la base al terminar.
+    private Set<Integer> touchedDuringRebuild;
+
+    public ProductoRangeIndex(@Lazy ProductoServiceImpl productoService, ProductoRepository productoRepository) {
+        this.productoService = productoService;
+        this.productoRepository = productoRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Snapshot snapshot = new Snapshot();
+        productoService.streamAll(snapshot::add);
+        snapshot.sort();
+
+        lock.writeLock().lock();
+        try {
+            priceById = snapshot.priceById;
+            stockById = snapshot.stockById;
+            versionById = snapshot.versionById;
+            present.clear();
+            present.or(snapshot.present);
+            active.clear();
+            active.or(snapshot.active);
+            priceKeys = snapshot.priceKeys;
+            priceIds = snapshot.priceIds;
+            stockKeys = snapshot.stockKeys;
+            stockIds = snapshot.stockIds;
+            size = snapshot.size;
+            Set<Integer> touched = touchedDuringRebuild;
+            touchedDuringRebuild = null;
+            productoRepository.findViewsByIdIn(touched).forEach(this::put);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product range index built: {} products", snapshot.size);
+    }
+
+    /**
+     * Ids que cumplen todos los rangos indicados (extremos inclusive).
+     * Double.MAX_VALUE / -Double.MAX_VALUE / Integer.MIN_VALUE equivalen a "sin filtro".
+     */
+    public BitSet filter(double minPrecio, double maxPrecio, int minStock, boolean activeOnly) {
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+            if (minPrecio > -Double.MAX_VALUE || maxPrecio < Double.MAX_VALUE) {
+                int from = lowerBound(priceKeys, priceIds, size, minPrecio, Integer.MIN_VALUE);
+                int to = lowerBound(priceKeys, priceIds, size, Math.nextUp(maxPrecio), Integer.MIN_VALUE);
+                result = new BitSet();
+                for (int i = from; i < to; i++) {
+                    result.set(priceIds[i]);
+                }
+            }
+            if (minStock > Integer.MIN_VALUE) {
+                int from = lowerBound(stockKeys, stockIds, size, minStock, Integer.MIN_VALUE);
+                BitSet bits = new BitSet();
+                for (int i = from; i < size; i++) {
+                    bits.set(stockIds[i]);
+                }
+                if (result == null) {
+                    result = bits;
+                } else {
+                    result.and(bits);
+                }
+            }
+            if (result == null) {
+                result = (BitSet) present.clone();
+            }
+            if (activeOnly) {
+                result.and(active);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica el estado del producto al índice cuando la transacción confirme.
+     */
+    public void indexAfterCommit(Producto producto) {
+        int id = producto.getId();
+        double precio = producto.getPrecio();
+        int stock = producto.getStock();
+        boolean isActive = producto.isActive();
+        long version = producto.getVersion();
+        afterCommit(() -> put(id, precio, stock, isActive, version));
+    }
+
+    /**
+     * Para los UPDATE masivos de stock (ProductoRepository.adjustStock), que no pasan por los listeners JPA.
+     * Lee el stock y la versión que dejó el UPDATE dentro de la transacción actual y los aplica al confirmar.
+     */
+    public void refreshStockAfterCommit(int id) {
+        List<Object[]> rows = productoRepository.findStockAndVersionById(id);
+        if (rows.isEmpty()) {
+            return;
+        }
+        int stock = (Integer) rows.get(0)[0];
+        long version = (Long) rows.get(0)[1];
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (touchedDuringRebuild != null) {
+                    touchedDuringRebuild.add(id);
+                }
+                if (present.get(id) && version > versionById[id]) {
+                    moveStock(id, stock);
+                    versionById[id] = version;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void put(ProductoView producto) {
+        put(producto.getId(), producto.getPrecio(), producto.getStock(), producto.isActive(), producto.getVersion());
+    }
+
+    private void put(int id, double precio, int stock, boolean isActive, long version) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(id);
+            }
+            if (present.get(id)) {
+                if (version < versionById[id]) {
+                    return;
+                }
+                movePrice(id, precio);
+                moveStock(id, stock);
+            } else {
+                insert(id, precio, stock);
+            }
+            versionById[id] = version;
+            active.set(id, isActive);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(int id, double precio, int stock) {
+        if (id >= priceById.length) {
+            int capacity = Math.max(id + 1, priceById.length * 2);
+            priceById = Arrays.copyOf(priceById, capacity);
+            stockById = Arrays.copyOf(stockById, capacity);
+            versionById = Arrays.copyOf(versionById, capacity);
+        }
+        if (size == priceKeys.length) {
+            int capacity = Math.max(16, size * 2);
+            priceKeys = Arrays.copyOf(priceKeys, capacity);
+            priceIds = Arrays.copyOf(priceIds, capacity);
+            stockKeys = Arrays.copyOf(stockKeys, capacity);
+            stockIds = Arrays.copyOf(stockIds, capacity);
+        }
+        int pricePos = lowerBound(priceKeys, priceIds, size, precio, id);
+        System.arraycopy(priceKeys, pricePos, priceKeys, pricePos + 1, size - pricePos);
+        System.arraycopy(priceIds, pricePos, priceIds, pricePos + 1, size - pricePos);
+        priceKeys[pricePos] = precio;
+        priceIds[pricePos] = id;
+        int stockPos = lowerBound(stockKeys, stockIds, size, stock, id);
+        System.arraycopy(stockKeys, stockPos, stockKeys, stockPos + 1, size - stockPos);
+        System.arraycopy(stockIds, stockPos, stockIds, stockPos + 1, size - stockPos);
+        stockKeys[stockPos] = stock;
+        stockIds[stockPos] = id;
+        size++;
+        priceById[id] = precio;
+        stockById[id] = stock;
+        present.set(id);
+    }
+
+    // Desplaza solo el tramo entre la posición vieja y la nueva.
+    private void movePrice(int id, double precio) {
+        double old = priceById[id];
+        if (Double.compare(old, precio) == 0) {
+            return;
+        }
+        int from = lowerBound(priceKeys, priceIds, size, old, id);
+        int target = lowerBound(priceKeys, priceIds, size, precio, id);
+        if (target > from) {
+            target--;
+            System.arraycopy(priceKeys, from + 1, priceKeys, from, target - from);
+            System.arraycopy(priceIds, from + 1, priceIds, from, target - from);
+        } else {
+            System.arraycopy(priceKeys, target, priceKeys, target + 1, from - target);
+            System.arraycopy(priceIds, target, priceIds, target + 1, from - target);
+        }
+        priceKeys[target] = precio;
+        priceIds[target] = id;
+        priceById[id] = precio;
+    }
+
+    private void moveStock(int id, int stock) {
+        int old = stockById[id];
+        if (old == stock) {
+            return;
+        }
+        int from = lowerBound(stockKeys, stockIds, size, old, id);
+        int target = lowerBound(stockKeys, stockIds, size, stock, id);
+        if (target > from) {
+            target--;
+            System.arraycopy(stockKeys, from + 1, stockKeys, from, target - from);
+            System.arraycopy(stockIds, from + 1, stockIds, from, target - from);
+        } else {
+            System.arraycopy(stockKeys, target, stockKeys, target + 1, from - target);
+            System.arraycopy(stockIds, target, stockIds, target + 1, from - target);
+        }
+        stockKeys[target] = stock;
+        stockIds[target] = id;
+        stockById[id] = stock;
+    }
+
+    // Primera posición cuyo (valor, id) es mayor o igual a (key, id).
+    private static int lowerBound(double[] keys, int[] ids, int size, double key, int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Double.compare(keys[mid], key);
+            if (cmp < 0 || (cmp == 0 && ids[mid] < id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(int[] keys, int[] ids, int size, int key, int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key || (keys[mid] == key && ids[mid] < id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Construcción completa: se cargan los valores en orden de id y luego se ordena cada índice
+     * (sort estable por valor, así los empates quedan por id).
+     */
+    private static final class Snapshot {
+        double[] priceById = new double[16];
+        int[] stockById = new int[16];
+        long[] versionById = new long[16];
+        final BitSet present = new BitSet();
+        final BitSet active = new BitSet();
+        double[] priceKeys;
+        int[] priceIds;
+        int[] stockKeys;
+        int[] stockIds;
+        int size;
+
+        void add(ProductoView producto) {
+            int id = producto.getId();
+            if (id >= priceById.length) {
+                int capacity = Math.max(id + 1, priceById.length * 2);
+                priceById = Arrays.copyOf(priceById, capacity);
+                stockById = Arrays.copyOf(stockById, capacity);
+                versionById = Arrays.copyOf(versionById, capacity);
+            }
+            priceById[id] = producto.getPrecio();
+            stockById[id] = producto.getStock();
+            versionById[id] = producto.getVersion();
+            present.set(id);
+            active.set(id, producto.isActive());
+            size++;
+        }
+
+        void sort() {
+            priceIds = new int[size];
+            int n = 0;
+            for (int id = present.nextSetBit(0); id >= 0; id = present.nextSetBit(id + 1)) {
+                priceIds[n++] = id;
+            }
+            stockIds = priceIds.clone();
+            mergeSort(priceIds, new int[size], 0, size, (a, b) -> Double.compare(priceById[a], priceById[b]));
+            mergeSort(stockIds, new int[size], 0, size, (a, b) -> Integer.compare(stockById[a], stockById[b]));
+            priceKeys = new double[size];
+            stockKeys = new int[size];
+            for (int i = 0; i < size; i++) {
+                priceKeys[i] = priceById[priceIds[i]];
+                stockKeys[i] = stockById[stockIds[i]];
+            }
+        }
+
+        private static void mergeSort(int[] ids, int[] buffer, int from, int to, IdComparator cmp) {
+            if (to - from < 2) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(ids, buffer, from, mid, cmp);
+            mergeSort(ids, buffer, mid, to, cmp);
+            int left = from;
+            int right = mid;
+            int out = from;
+            while (left < mid && right < to) {
+                buffer[out++] = cmp.compare(ids[right], ids[left]) < 0 ? ids[right++] : ids[left++];
+            }
+            while (left < mid) {
+                buffer[out++] = ids[left++];
+            }
+            while (right < to) {
+                buffer[out++] = ids[right++];
+            }
+            System.arraycopy(buffer, from, ids, from, to - from);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IdComparator {
+        int compare(int a, int b);
+    }
+}
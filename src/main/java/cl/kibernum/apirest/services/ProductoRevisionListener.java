@@ -0,0 +1,28 @@
+package cl.kibernum.apirest.services;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import cl.kibernum.apirest.entities.Producto;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Listener JPA de Producto: asigna una nueva revisión del catálogo a cada alta o modificación
+ * (incluida la desactivación), que es lo que consulta GET /api/v1/productos/changes.
+ */
+@Component
+public class ProductoRevisionListener {
+    private final CatalogRevision catalogRevision;
+
+    // @Lazy evita el ciclo EntityManagerFactory -> listener -> CatalogRevision -> repositorio.
+    public ProductoRevisionListener(@Lazy CatalogRevision catalogRevision) {
+        this.catalogRevision = catalogRevision;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onChange(Producto producto) {
+        producto.setRevision(catalogRevision.next());
+    }
+}
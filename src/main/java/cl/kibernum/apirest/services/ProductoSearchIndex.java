@@ -0,0 +1,360 @@
+package cl.kibernum.apirest.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import cl.kibernum.apirest.dto.ProductoView;
+import cl.kibernum.apirest.entities.Producto;
+
+/**
+ * Índice invertido en memoria sobre nombre y descripcion de los productos activos.
+ *
+ * Los textos se normalizan quitando tildes (NFD sin marcas diacríticas, "Pañal Económico" -> "panal economico"),
+ * se pasan a minúsculas y se separan en palabras; se omiten palabras de una letra y conectores frecuentes.
+ * Cada término apunta a una lista de ids ordenada, así una búsqueda con varias palabras es una intersección
+ * de arreglos de int. La última palabra de la consulta también se busca como prefijo (desde 3 letras).
+ *
+ * El puntaje suma, por término, idf * peso del campo (nombre pesa más que descripcion).
+ * Se reconstruye desde la base al arrancar y se actualiza después de cada commit que crea o modifica un producto.
+ * Como en ProductoRangeIndex, cada cambio trae la versión (@Version) de la fila y se ignora uno más antiguo que
+ * el último aplicado: los callbacks de commit concurrentes pueden llegar en otro orden que sus commits.
+ */
+@Component
+public class ProductoSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(ProductoSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Set<String> STOPWORDS = Set.of(
+            "de", "del", "la", "las", "el", "los", "un", "una", "unos", "unas", "y", "o", "en", "con", "para", "por", "sin", "al");
+    private static final int NOMBRE_WEIGHT = 3;
+    private static final int DESCRIPCION_WEIGHT = 1;
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    private final ProductoServiceImpl productoService;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Protegidos por lock.
+    private TreeMap<String, PostingList> terms = new TreeMap<>();
+    private HashMap<Integer, String[]> documents = new HashMap<>();
+    // Última versión aplicada por id, también de los productos inactivos (que no están en documents).
+    private HashMap<Integer, Long> versions = new HashMap<>();
+    // Cambios recibidos mientras se reconstruye el índice; se vuelven a aplicar sobre el índice nuevo.
+    private Map<Integer, IndexedProducto> pendingDuringRebuild;
+
+    public ProductoSearchIndex(@Lazy ProductoServiceImpl productoService) {
+        this.productoService = productoService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TreeMap<String, PostingList> newTerms = new TreeMap<>();
+        HashMap<Integer, String[]> newDocuments = new HashMap<>();
+        HashMap<Integer, Long> newVersions = new HashMap<>();
+        long count = productoService.streamAll(producto -> {
+            newVersions.put(producto.getId(), producto.getVersion());
+            if (producto.isActive()) {
+                add(newTerms, newDocuments, producto);
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            terms = newTerms;
+            documents = newDocuments;
+            versions = newVersions;
+            Map<Integer, IndexedProducto> pending = pendingDuringRebuild;
+            pendingDuringRebuild = null;
+            pending.values().forEach(this::update);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built: {} products, {} terms (scanned {})", newDocuments.size(), newTerms.size(), count);
+    }
+
+    /**
+     * Registra el estado actual del producto para aplicarlo al índice cuando la transacción confirme.
+     */
+    public void indexAfterCommit(Producto producto) {
+        IndexedProducto snapshot = new IndexedProducto(producto.getId(), producto.getNombre(),
+                producto.getDescripcion(), producto.isActive(), producto.getVersion());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update(snapshot);
+                }
+            });
+        } else {
+            update(snapshot);
+        }
+    }
+
+    private void update(IndexedProducto producto) {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.merge(producto.id, producto,
+                        (current, incoming) -> incoming.version < current.version ? current : incoming);
+            }
+            Long applied = versions.get(producto.id);
+            if (applied != null && producto.version < applied) {
+                return;
+            }
+            versions.put(producto.id, producto.version);
+            remove(terms, documents, producto.id);
+            if (producto.active) {
+                add(terms, documents, producto.id, producto.nombre, producto.descripcion);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids de productos activos que contienen todas las palabras de la consulta, ordenados por relevancia.
+     */
+    public SearchHits search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new SearchHits(new int[0], 0);
+        }
+        lock.readLock().lock();
+        try {
+            int totalDocs = documents.size();
+            List<PostingList> lists = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean prefix = i == tokens.size() - 1 && token.length() >= MIN_PREFIX_LENGTH;
+                PostingList list = prefix ? prefixPostings(token) : terms.get(token);
+                if (list == null || list.size == 0) {
+                    return new SearchHits(new int[0], 0);
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            PostingList smallest = lists.get(0);
+            int[] candidates = Arrays.copyOf(smallest.ids, smallest.size);
+            double[] scores = new double[smallest.size];
+            double idf = idf(totalDocs, smallest.size);
+            for (int i = 0; i < smallest.size; i++) {
+                scores[i] = idf * smallest.weights[i];
+            }
+            int count = smallest.size;
+            for (int l = 1; l < lists.size() && count > 0; l++) {
+                PostingList list = lists.get(l);
+                double listIdf = idf(totalDocs, list.size);
+                int kept = 0;
+                int from = 0;
+                for (int i = 0; i < count; i++) {
+                    int pos = Arrays.binarySearch(list.ids, from, list.size, candidates[i]);
+                    if (pos >= 0) {
+                        candidates[kept] = candidates[i];
+                        scores[kept] = scores[i] + listIdf * list.weights[pos];
+                        kept++;
+                        from = pos + 1;
+                    } else {
+                        from = -pos - 1;
+                    }
+                }
+                count = kept;
+            }
+            return new SearchHits(topK(candidates, scores, count, limit), count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int[] topK(int[] ids, double[] scores, int count, int limit) {
+        // Min-heap por puntaje sobre posiciones; en empate gana el id menor.
+        Comparator<Integer> order = (a, b) -> scores[a] != scores[b]
+                ? Double.compare(scores[a], scores[b])
+                : Integer.compare(ids[b], ids[a]);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(count, limit) + 1, order);
+        for (int i = 0; i < count; i++) {
+            heap.add(i);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        int[] top = new int[heap.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = ids[heap.poll()];
+        }
+        return top;
+    }
+
+    private static double idf(int totalDocs, int docFrequency) {
+        return Math.log(1 + (double) totalDocs / docFrequency);
+    }
+
+    // Unión de las listas de todos los términos que empiezan con el prefijo; se conserva el mayor peso por id.
+    // Se concatenan id y peso en un long (id en los 32 bits altos), se ordena una vez y se eliminan repetidos:
+    // O(n log n) sobre el total de postings en vez de una inserción ordenada por posting.
+    private PostingList prefixPostings(String prefix) {
+        Map<String, PostingList> matches = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        if (matches.size() <= 1) {
+            return matches.isEmpty() ? null : matches.values().iterator().next();
+        }
+        int total = 0;
+        for (PostingList list : matches.values()) {
+            total += list.size;
+        }
+        long[] packed = new long[total];
+        int n = 0;
+        for (PostingList list : matches.values()) {
+            for (int i = 0; i < list.size; i++) {
+                packed[n++] = (long) list.ids[i] << 32 | list.weights[i];
+            }
+        }
+        Arrays.sort(packed);
+        PostingList union = new PostingList(total);
+        for (int i = 0; i < total; i++) {
+            // Mismo id ordenado por peso ascendente: el último de cada grupo tiene el mayor peso.
+            if (i + 1 < total && packed[i + 1] >>> 32 == packed[i] >>> 32) {
+                continue;
+            }
+            union.ids[union.size] = (int) (packed[i] >>> 32);
+            union.weights[union.size] = (int) packed[i];
+            union.size++;
+        }
+        return union;
+    }
+
+    private static void add(TreeMap<String, PostingList> terms, Map<Integer, String[]> documents, ProductoView producto) {
+        add(terms, documents, producto.getId(), producto.getNombre(), producto.getDescripcion());
+    }
+
+    private static void add(TreeMap<String, PostingList> terms, Map<Integer, String[]> documents,
+            int id, String nombre, String descripcion) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String token : tokenize(nombre)) {
+            weights.merge(token, NOMBRE_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(descripcion)) {
+            weights.merge(token, DESCRIPCION_WEIGHT, Integer::sum);
+        }
+        weights.forEach((token, weight) -> terms.computeIfAbsent(token, key -> new PostingList()).addMax(id, weight));
+        documents.put(id, weights.keySet().toArray(String[]::new));
+    }
+
+    private static void remove(TreeMap<String, PostingList> terms, Map<Integer, String[]> documents, int id) {
+        String[] previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous) {
+            PostingList list = terms.get(token);
+            if (list != null && list.remove(id) && list.size == 0) {
+                terms.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Palabras normalizadas y sin repetir: sin tildes, en minúsculas y sin conectores frecuentes.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (token.length() > 1 && !STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record IndexedProducto(int id, String nombre, String descripcion, boolean active, long version) { }
+
+    /**
+     * Resultado de una búsqueda: ids en orden de relevancia (hasta el límite) y total de coincidencias.
+     */
+    public record SearchHits(int[] ids, int total) { }
+
+    // Ids ordenados con su peso; inserción y borrado por búsqueda binaria.
+    private static final class PostingList {
+        int[] ids;
+        int[] weights;
+        int size;
+
+        PostingList() {
+            this(4);
+        }
+
+        PostingList(int capacity) {
+            ids = new int[Math.max(capacity, 1)];
+            weights = new int[Math.max(capacity, 1)];
+        }
+
+        void addMax(int id, int weight) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                weights[pos] = Math.max(weights[pos], weight);
+                return;
+            }
+            int insert = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+            System.arraycopy(weights, insert, weights, insert + 1, size - insert);
+            ids[insert] = id;
+            weights[insert] = weight;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(weights, pos + 1, weights, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
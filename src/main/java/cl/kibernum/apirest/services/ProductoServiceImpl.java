@@ -1,23 +1,57 @@
 package cl.kibernum.apirest.services;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import cl.kibernum.apirest.dto.ChangesPage;
+import cl.kibernum.apirest.dto.CursorPage;
 import cl.kibernum.apirest.dto.ProductoDto;
+import cl.kibernum.apirest.dto.ProductoFilter;
+import cl.kibernum.apirest.dto.ProductoView;
+import cl.kibernum.apirest.dto.SearchResult;
+import cl.kibernum.apirest.dto.StockDeltaDto;
 import cl.kibernum.apirest.entities.Producto;
 import cl.kibernum.apirest.repositories.ProductoRepository;
+import cl.kibernum.apirest.exception.InsufficientStockException;
+import cl.kibernum.apirest.exception.InvalidRequestException;
+import cl.kibernum.apirest.exception.PreconditionFailedException;
+import cl.kibernum.apirest.exception.ResourceConflictException;
 import cl.kibernum.apirest.exception.ResourceDuplicateException;
 import cl.kibernum.apirest.exception.ResourceNotFoundException;
 
 @Service
 public class ProductoServiceImpl implements ICrudService<Producto, ProductoDto>, IProductoService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int DEFAULT_SEARCH_SIZE = 20;
+    public static final int MAX_SEARCH_SIZE = 100;
+
     private final ProductoRepository productoRepository;
+    private final ProductoCache productoCache;
+    private final CatalogRevision catalogRevision;
+    private final ProductoSearchIndex searchIndex;
+    private final ProductoRangeIndex rangeIndex;
 
-    public ProductoServiceImpl(ProductoRepository productoRepository) {
+    public ProductoServiceImpl(ProductoRepository productoRepository, ProductoCache productoCache,
+            CatalogRevision catalogRevision, ProductoSearchIndex searchIndex, ProductoRangeIndex rangeIndex) {
         this.productoRepository = productoRepository;
+        this.productoCache = productoCache;
+        this.catalogRevision = catalogRevision;
+        this.searchIndex = searchIndex;
+        this.rangeIndex = rangeIndex;
     }
 
     @Override
@@ -27,8 +61,7 @@ public class ProductoServiceImpl implements ICrudService<Producto, ProductoDto>,
 
     @Override
     public Optional<Producto> getById(int id) {
-       return productoRepository.findById(id);
-                               
+       return productoCache.get(id, productoRepository::findById);
     }
 
     @Override
@@ -45,7 +78,9 @@ public class ProductoServiceImpl implements ICrudService<Producto, ProductoDto>,
         producto.setDescripcion(productoDto.getDescripcion());
         producto.setStock(productoDto.getStock());
         producto.setPrecio(productoDto.getPrecio());
-        return productoRepository.save(producto);
+        Producto saved = productoRepository.save(producto);
+        productoCache.put(saved);
+        return saved;
     }
 
     @Override
@@ -54,25 +89,234 @@ public class ProductoServiceImpl implements ICrudService<Producto, ProductoDto>,
                                     .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
       searchingProducto.desactivateProduct();
       productoRepository.save(searchingProducto);
+      productoCache.invalidateAfterCommit(id);
     }
 
 
     @Override
     @Transactional
     public Producto update(int id, ProductoDto productoDto) {
+        return update(id, productoDto, null);
+    }
+
+    /**
+     * Actualiza solo si la versión actual coincide con expectedVersion (If-Match); null omite la validación.
+     * Una escritura concurrente que gane la carrera se detecta con @Version al hacer flush.
+     */
+    @Transactional
+    public Producto update(int id, ProductoDto productoDto, Long expectedVersion) {
         Producto searchingProducto = productoRepository.findById(id)
                                     .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
+        if (expectedVersion != null && expectedVersion != searchingProducto.getVersion()) {
+            throw new PreconditionFailedException("El producto fue modificado por otra solicitud");
+        }
       
             searchingProducto.setNombre(productoDto.getNombre());
             searchingProducto.setDescripcion(productoDto.getDescripcion());
             searchingProducto.setStock(productoDto.getStock());
             searchingProducto.setPrecio(productoDto.getPrecio());
         
-        return productoRepository.save(searchingProducto);
+        productoCache.invalidateAfterCommit(id);
+        try {
+            return productoRepository.saveAndFlush(searchingProducto);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion != null) {
+                throw new PreconditionFailedException("El producto fue modificado por otra solicitud");
+            }
+            throw new ResourceConflictException("El producto fue modificado por otra solicitud, reintente");
+        }
     }
 
     @Override
     public List<Producto> findAllByActiveTrue() {
         return productoRepository.findAllByActiveTrue();
     }
+
+    @Override
+    public CursorPage<ProductoView> findPage(String after, int limit) {
+        int size = pageSize(limit);
+        List<ProductoView> rows = productoRepository.findViewPage(ProductoCursor.decode(after), Limit.of(size + 1));
+        return toPage(rows, size);
+    }
+
+    @Override
+    public CursorPage<ProductoView> findActivePage(String after, int limit) {
+        int size = pageSize(limit);
+        List<ProductoView> rows = productoRepository.findActiveViewPage(ProductoCursor.decode(after), Limit.of(size + 1));
+        return toPage(rows, size);
+    }
+
+    @Override
+    public CursorPage<ProductoView> findPage(String after, int limit, ProductoFilter filter) {
+        return filter.isEmpty() ? findPage(after, limit) : findFilteredPage(after, limit, filter, false);
+    }
+
+    @Override
+    public CursorPage<ProductoView> findActivePage(String after, int limit, ProductoFilter filter) {
+        return filter.isEmpty() ? findActivePage(after, limit) : findFilteredPage(after, limit, filter, true);
+    }
+
+    /**
+     * Filtro por rangos de precio/stock sobre ProductoRangeIndex: los ids que cumplen salen de un BitSet
+     * y solo la página pedida se lee de la base. Mientras el índice no está listo se filtra en la base.
+     */
+    private CursorPage<ProductoView> findFilteredPage(String after, int limit, ProductoFilter filter, boolean activeOnly) {
+        double minPrecio = filter.minPrecioOrMin();
+        double maxPrecio = filter.maxPrecioOrMax();
+        int minStock = filter.minStockOrMin();
+        if (minPrecio > maxPrecio) {
+            throw new InvalidRequestException("minPrecio no puede ser mayor que maxPrecio");
+        }
+        int size = pageSize(limit);
+        int cursor = ProductoCursor.decode(after);
+        if (!rangeIndex.isReady()) {
+            List<ProductoView> rows = activeOnly
+                    ? productoRepository.findActiveFiltered(cursor, minPrecio, maxPrecio, minStock, Limit.of(size + 1))
+                    : productoRepository.findFiltered(cursor, minPrecio, maxPrecio, minStock, Limit.of(size + 1));
+            return toPage(rows, size);
+        }
+
+        // decode ya rechazó los cursores fuera de [0, Integer.MAX_VALUE): cursor + 1 es un índice válido del BitSet.
+        BitSet matches = rangeIndex.filter(minPrecio, maxPrecio, minStock, activeOnly);
+        List<Integer> ids = new ArrayList<>(size + 1);
+        for (int id = matches.nextSetBit(cursor + 1); id >= 0 && ids.size() <= size; id = matches.nextSetBit(id + 1)) {
+            ids.add(id);
+        }
+        boolean hasNext = ids.size() > size;
+        List<Integer> pageIds = hasNext ? ids.subList(0, size) : ids;
+        Map<Integer, ProductoView> byId = new HashMap<>();
+        for (ProductoView producto : productoRepository.findViewsByIdIn(pageIds)) {
+            byId.put(producto.getId(), producto);
+        }
+        // Se vuelve a validar contra la fila leída por si cambió entre el filtro y la lectura.
+        List<ProductoView> items = new ArrayList<>(pageIds.size());
+        for (int id : pageIds) {
+            ProductoView producto = byId.get(id);
+            if (producto != null && filter.matches(producto.getPrecio(), producto.getStock())
+                    && (!activeOnly || producto.isActive())) {
+                items.add(producto);
+            }
+        }
+        return new CursorPage<>(items, hasNext ? ProductoCursor.encode(pageIds.get(size - 1)) : null);
+    }
+
+    /**
+     * Productos creados, modificados o desactivados después de la revisión since, en orden de revisión.
+     * Solo se entregan revisiones ya confirmadas (hasta CatalogRevision.watermark()).
+     */
+    @Override
+    public ChangesPage<ProductoView> findChanges(long since, int limit) {
+        int size = pageSize(limit);
+        long upTo = catalogRevision.watermark();
+        if (since >= upTo) {
+            return new ChangesPage<>(List.of(), Math.max(since, upTo), false);
+        }
+        List<ProductoView> rows = productoRepository.findChangedViews(since, upTo, Limit.of(size + 1));
+        if (rows.size() <= size) {
+            return new ChangesPage<>(rows, upTo, false);
+        }
+        List<ProductoView> items = rows.subList(0, size);
+        return new ChangesPage<>(items, items.get(size - 1).getRevision(), true);
+    }
+
+    /**
+     * Búsqueda por texto sobre el índice en memoria; solo los productos de la página se leen de la base.
+     */
+    @Override
+    public SearchResult<ProductoView> search(String query, int limit) {
+        int size = limit <= 0 ? DEFAULT_SEARCH_SIZE : Math.min(limit, MAX_SEARCH_SIZE);
+        ProductoSearchIndex.SearchHits hits = searchIndex.search(query, size);
+        if (hits.ids().length == 0) {
+            return new SearchResult<>(hits.total(), List.of());
+        }
+        List<Integer> ids = Arrays.stream(hits.ids()).boxed().toList();
+        Map<Integer, ProductoView> byId = new HashMap<>();
+        for (ProductoView producto : productoRepository.findViewsByIdIn(ids)) {
+            byId.put(producto.getId(), producto);
+        }
+        List<ProductoView> items = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            ProductoView producto = byId.get(id);
+            if (producto != null) {
+                items.add(producto);
+            }
+        }
+        return new SearchResult<>(hits.total(), items);
+    }
+
+    private static int pageSize(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // Se pide una fila extra para saber si existe página siguiente sin un COUNT adicional.
+    private static CursorPage<ProductoView> toPage(List<ProductoView> rows, int size) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ProductoView> items = rows.subList(0, size);
+        return new CursorPage<>(items, ProductoCursor.encode(items.get(size - 1).getId()));
+    }
+
+    @Override
+    @Transactional
+    public void adjustStock(int id, int delta) {
+        applyDelta(id, delta);
+    }
+
+    /**
+     * Aplica todos los ajustes en una transacción: si alguno falla no se aplica ninguno.
+     * Los deltas de un mismo producto se suman y se actualiza en orden de id para evitar interbloqueos.
+     */
+    @Override
+    @Transactional
+    public void adjustStock(List<StockDeltaDto> deltas) {
+        Map<Integer, Integer> byId = new TreeMap<>();
+        for (StockDeltaDto delta : deltas) {
+            if (delta.getId() == null) {
+                throw new InvalidRequestException("Cada ajuste debe indicar el id del producto");
+            }
+            try {
+                byId.merge(delta.getId(), delta.getDelta(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new InvalidRequestException("La suma de los ajustes del producto " + delta.getId()
+                        + " excede el rango permitido");
+            }
+        }
+        byId.forEach(this::applyDelta);
+    }
+
+    private void applyDelta(int id, int delta) {
+        if (productoRepository.adjustStock(id, delta, catalogRevision.next()) == 0) {
+            if (!productoRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Producto no encontrado");
+            }
+            if (delta > 0) {
+                throw new InvalidRequestException("El stock del producto " + id + " excede el rango permitido");
+            }
+            throw new InsufficientStockException("Stock insuficiente para el producto " + id);
+        }
+        productoCache.invalidateAfterCommit(id);
+        rangeIndex.refreshStockAfterCommit(id);
+    }
+
+    /**
+     * Recorre todo el catálogo en orden de id sin materializarlo en memoria.
+     * Las filas son proyecciones (no entidades administradas), así el contexto de persistencia no crece.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<ProductoView> action) {
+        long count = 0;
+        try (Stream<ProductoView> productos = productoRepository.streamAllViews()) {
+            var iterator = productos.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -0,0 +1,404 @@
+package cl.kibernum.apirest.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.kibernum.apirest.config.CatalogProperties;
+import cl.kibernum.apirest.dto.ReservaDto;
+import cl.kibernum.apirest.dto.StockDisponibleDto;
+import cl.kibernum.apirest.exception.InsufficientStockException;
+import cl.kibernum.apirest.exception.InvalidRequestException;
+import cl.kibernum.apirest.exception.ResourceNotFoundException;
+import cl.kibernum.apirest.repositories.ProductoRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ledger de reservas de stock en memoria, delante de Producto.stock.
+ *
+ * Producto.stock sigue siendo la fuente de verdad. Por producto se lleva el último stock leído de la base,
+ * lo reservado (held) y lo confirmado que aún no se escribe (pending); disponible = stock - pending - held.
+ * Reservar, liberar y confirmar solo toman el lock de su franja (lock striping) y no consultan la base,
+ * salvo la primera vez que se ve un producto creado después del último resync.
+ *
+ * Cada segundo se escriben las ventas confirmadas con un UPDATE atómico por producto (todas en una transacción)
+ * y se relee el stock de los productos con actividad. Si el UPDATE no aplica porque el stock de la base bajó
+ * (PUT, PATCH /stock, cargas) por debajo de lo confirmado, esas ventas no se pierden: siguen en pending, se
+ * reintentan en cada flush hasta que haya stock y se informan en el log y en stock.reservations.unsettled.
+ * Mientras tanto el producto no admite reservas nuevas. Cada 30 segundos y al arrancar se releen todos los
+ * productos (reconciliación), así los cambios hechos por otras vías (PUT, PATCH /stock, cargas) se reflejan
+ * en el ledger.
+ *
+ * flush y reconcile se excluyen entre sí (syncLock): si una reconciliación leyera el stock antes de que un
+ * flush confirme su UPDATE y lo escribiera después, el ledger quedaría con el stock anterior y pending ya
+ * descontado, y mostraría como disponibles las unidades recién vendidas.
+ */
+@Component
+public class StockReservationLedger implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(StockReservationLedger.class);
+    private static final int REFRESH_CHUNK = 1000;
+
+    private final ProductoRepository productoRepository;
+    private final ProductoCache productoCache;
+    private final CatalogRevision catalogRevision;
+    private final ProductoRangeIndex rangeIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMillis;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ReentrantLock[] locks;
+    private final int lockMask;
+    private final ConcurrentHashMap<Integer, ProductStock> products = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    // Unidades confirmadas que la base rechazó en el último flush y siguen pendientes de reintento.
+    private volatile long unsettled;
+
+    public StockReservationLedger(ProductoRepository productoRepository, ProductoCache productoCache,
+            CatalogRevision catalogRevision, ProductoRangeIndex rangeIndex, PlatformTransactionManager transactionManager,
+            CatalogProperties props) {
+        this.productoRepository = productoRepository;
+        this.productoCache = productoCache;
+        this.catalogRevision = catalogRevision;
+        this.rangeIndex = rangeIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlMillis = props.getReservations().getTtl().toMillis();
+        int stripes = Integer.highestOneBit(Math.max(1, props.getReservations().getStripes() - 1)) << 1;
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.lockMask = stripes - 1;
+    }
+
+    public ReservaDto reserve(int productoId, int cantidad) {
+        if (cantidad <= 0) {
+            throw new InvalidRequestException("La cantidad debe ser mayor a 0");
+        }
+        ProductStock stock = track(productoId);
+        ReentrantLock lock = lockFor(productoId);
+        lock.lock();
+        try {
+            if (!stock.active) {
+                throw new ResourceNotFoundException("Producto no encontrado");
+            }
+            if (stock.available() < cantidad) {
+                throw new InsufficientStockException("Stock insuficiente para el producto " + productoId);
+            }
+            stock.held += cantidad;
+            stock.touched = true;
+        } finally {
+            lock.unlock();
+        }
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), productoId, cantidad,
+                System.currentTimeMillis() + ttlMillis);
+        reservations.put(reservation.id, reservation);
+        return reservation.toDto();
+    }
+
+    public void release(String reservaId) {
+        Reservation reservation = reservations.remove(reservaId);
+        if (reservation == null) {
+            throw new ResourceNotFoundException("Reserva no encontrada");
+        }
+        unhold(reservation, false);
+    }
+
+    /**
+     * Convierte la reserva en venta: deja de estar retenida y queda pendiente de descontarse en la base.
+     */
+    public void confirm(String reservaId) {
+        Reservation reservation = reservations.remove(reservaId);
+        if (reservation == null) {
+            throw new ResourceNotFoundException("Reserva no encontrada");
+        }
+        if (reservation.expiresAt <= System.currentTimeMillis()) {
+            unhold(reservation, false);
+            expired.increment();
+            throw new ResourceNotFoundException("Reserva expirada");
+        }
+        unhold(reservation, true);
+    }
+
+    public StockDisponibleDto availability(int productoId) {
+        ProductStock stock = track(productoId);
+        ReentrantLock lock = lockFor(productoId);
+        lock.lock();
+        try {
+            if (!stock.active) {
+                throw new ResourceNotFoundException("Producto no encontrado");
+            }
+            return new StockDisponibleDto(productoId, stock.stock - stock.pending, stock.held, stock.available());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unhold(Reservation reservation, boolean sold) {
+        ProductStock stock = products.get(reservation.productoId);
+        ReentrantLock lock = lockFor(reservation.productoId);
+        lock.lock();
+        try {
+            stock.held -= reservation.cantidad;
+            if (sold) {
+                stock.pending += reservation.cantidad;
+            }
+            stock.touched = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.SECONDS)
+    public void expireReservations() {
+        long now = System.currentTimeMillis();
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.expiresAt <= now && reservations.remove(reservation.id, reservation)) {
+                unhold(reservation, false);
+                expired.increment();
+            }
+        }
+    }
+
+    /**
+     * Escribe en la base las ventas confirmadas (un UPDATE condicional por producto, en una sola transacción)
+     * y relee el stock de los productos con actividad desde el flush anterior.
+     * Lo confirmado que no cabe en el stock de la base queda en pending y se reintenta en el siguiente flush.
+     */
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.SECONDS)
+    @PreDestroy
+    public void flush() {
+        syncLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        Set<Integer> refresh = new HashSet<>();
+        products.forEach((id, stock) -> {
+            ReentrantLock lock = lockFor(id);
+            lock.lock();
+            try {
+                if (stock.pending > 0) {
+                    deltas.put(id, stock.pending);
+                }
+                if (stock.touched) {
+                    stock.touched = false;
+                    refresh.add(id);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+        if (deltas.isEmpty() && refresh.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> written = new HashSet<>();
+        if (!deltas.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> deltas.forEach((id, delta) -> {
+                if (productoRepository.adjustStock(id, -delta, catalogRevision.next()) == 1) {
+                    written.add(id);
+                    productoCache.invalidateAfterCommit(id);
+                    rangeIndex.refreshStockAfterCommit(id);
+                }
+            }));
+            refresh.addAll(deltas.keySet());
+            long rejectedUnits = 0;
+            for (Map.Entry<Integer, Integer> entry : deltas.entrySet()) {
+                boolean rejected = !written.contains(entry.getKey());
+                if (rejected) {
+                    rejectedUnits += entry.getValue();
+                }
+                markUnsettled(entry.getKey(), rejected, entry.getValue());
+            }
+            unsettled = rejectedUnits;
+        }
+
+        // Stock leído después del commit: ya incluye lo escrito, por eso se descuenta de pending en el mismo paso.
+        // Lo rechazado sigue en pending para el próximo flush.
+        List<Integer> ids = new ArrayList<>(refresh);
+        for (int from = 0; from < ids.size(); from += REFRESH_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + REFRESH_CHUNK, ids.size()));
+            Set<Integer> missing = new HashSet<>(chunk);
+            for (Object[] row : productoRepository.findStockByIdIn(chunk)) {
+                int id = (Integer) row[0];
+                missing.remove(id);
+                apply(id, (Integer) row[1], (Boolean) row[2], written.contains(id) ? deltas.get(id) : 0);
+            }
+            for (int id : missing) {
+                apply(id, 0, false, 0);
+            }
+        }
+        flushed.add(written.size());
+    }
+
+    // Informa solo los cambios de estado, no cada reintento.
+    private void markUnsettled(int id, boolean rejected, int units) {
+        ProductStock stock = products.get(id);
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            if (rejected && !stock.unsettled) {
+                log.error("Confirmed reservations for product {} ({} units) exceed its database stock; retrying on every flush",
+                        id, units);
+            } else if (!rejected && stock.unsettled) {
+                log.info("Confirmed reservations for product {} written after retry", id);
+            }
+            stock.unsettled = rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reconciliación completa con la base: al arrancar y luego periódicamente.
+     * No toca held ni pending, que solo existen en memoria.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        int count = reconcile();
+        log.info("Stock reservation ledger loaded {} products", count);
+    }
+
+    @Scheduled(fixedDelay = 30, initialDelay = 30, timeUnit = TimeUnit.SECONDS)
+    public int reconcile() {
+        syncLock.lock();
+        try {
+            return reconcileLocked();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private int reconcileLocked() {
+        Integer count = transactionTemplate.execute(status -> {
+            int loaded = 0;
+            try (Stream<Object[]> rows = productoRepository.streamAllStock()) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    int id = (Integer) row[0];
+                    ProductStock stock = products.computeIfAbsent(id, key -> new ProductStock());
+                    setFromDatabase(id, stock, (Integer) row[1], (Boolean) row[2], 0);
+                    loaded++;
+                }
+            }
+            return loaded;
+        });
+        return count == null ? 0 : count;
+    }
+
+    private void apply(int id, int dbStock, boolean active, int settled) {
+        ProductStock stock = products.get(id);
+        if (stock != null) {
+            setFromDatabase(id, stock, dbStock, active, settled);
+        }
+    }
+
+    private void setFromDatabase(int id, ProductStock stock, int dbStock, boolean active, int settled) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            stock.stock = dbStock;
+            stock.active = active;
+            stock.pending -= settled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Productos creados después del último resync: única lectura a la base en el camino de la request.
+    private ProductStock track(int productoId) {
+        ProductStock stock = products.get(productoId);
+        if (stock != null) {
+            return stock;
+        }
+        List<Object[]> rows = productoRepository.findStockByIdIn(List.of(productoId));
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Producto no encontrado");
+        }
+        ProductStock loaded = new ProductStock();
+        loaded.stock = (Integer) rows.get(0)[1];
+        loaded.active = (Boolean) rows.get(0)[2];
+        ProductStock existing = products.putIfAbsent(productoId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private ReentrantLock lockFor(int productoId) {
+        return locks[(productoId * 0x9E3779B9 >>> 16) & lockMask];
+    }
+
+    public int activeReservations() {
+        return reservations.size();
+    }
+
+    public long unsettledUnits() {
+        return unsettled;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stock.reservations.active", reservations, Map::size)
+                .description("Reservas de stock vigentes")
+                .register(registry);
+        FunctionCounter.builder("stock.reservations.expired", expired, LongAdder::sum)
+                .description("Reservas liberadas por vencimiento")
+                .register(registry);
+        FunctionCounter.builder("stock.reservations.flushed", flushed, LongAdder::sum)
+                .description("Actualizaciones de stock escritas en la base por el ledger")
+                .register(registry);
+        Gauge.builder("stock.reservations.unsettled", this, StockReservationLedger::unsettledUnits)
+                .description("Unidades confirmadas que la base rechazó por falta de stock y se siguen reintentando")
+                .register(registry);
+    }
+
+    // Campos protegidos por el lock de la franja del producto.
+    private static final class ProductStock {
+        int stock;
+        boolean active;
+        int held;
+        int pending;
+        // Hubo movimiento desde el último flush: su stock se relee de la base.
+        boolean touched;
+        // El último flush no pudo escribir lo confirmado (stock de la base insuficiente).
+        boolean unsettled;
+
+        int available() {
+            return stock - pending - held;
+        }
+    }
+
+    private record Reservation(String id, int productoId, int cantidad, long expiresAt) {
+        ReservaDto toDto() {
+            return new ReservaDto(id, productoId, cantidad, Instant.ofEpochMilli(expiresAt));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package cl.kibernum.apirest.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+class CatalogPropertiesTest {
+
+	private final ApplicationContextRunner runner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(ValidationAutoConfiguration.class))
+			.withUserConfiguration(PropertiesConfig.class);
+
+	@Test
+	void defaultsAreValid() {
+		runner.run(context -> {
+			assertThat(context).hasNotFailed();
+			assertThat(context.getBean(CatalogProperties.class).getBatch().getChunkSize()).isEqualTo(500);
+		});
+	}
+
+	@Test
+	void rejectsNonPositiveChunkSize() {
+		runner.withPropertyValues("catalog.batch.chunk-size=0")
+				.run(context -> assertThat(context).hasFailed());
+		runner.withPropertyValues("catalog.batch.max-items=-1")
+				.run(context -> assertThat(context).hasFailed());
+	}
+
+	@Configuration
+	@EnableConfigurationProperties(CatalogProperties.class)
+	static class PropertiesConfig {
+	}
+}
@@ -0,0 +1,37 @@
+package cl.kibernum.apirest.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.threads.virtual.enabled=true")
+class ExecutionModeConfigTest {
+
+	@Autowired
+	private ServletWebServerApplicationContext context;
+
+	@Test
+	void virtualModeRunsRequestsOnVirtualThreads() throws Exception {
+		Connector connector = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+		Executor executor = connector.getProtocolHandler().getExecutor();
+
+		Thread[] worker = new Thread[1];
+		CountDownLatch done = new CountDownLatch(1);
+		executor.execute(() -> {
+			worker[0] = Thread.currentThread();
+			done.countDown();
+		});
+		done.await();
+
+		assertThat(worker[0].isVirtual()).isTrue();
+	}
+}
@@ -0,0 +1,45 @@
+package cl.kibernum.apirest.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void prometheusExposesHotPathMeters() throws Exception {
+		mvc.perform(get("/api/v1/productos")).andExpect(status().isOk());
+
+		String body = mvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(body)
+				.contains("http_server_serialization_seconds_count{")
+				.contains("http_server_requests_seconds_bucket{")
+				.contains("jwt_verify_seconds_count{")
+				.contains("jwt_rejected_total{")
+				.contains("auth_hash_duration_seconds_count{");
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void prometheusIsAdminOnly() throws Exception {
+		mvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+	}
+}
@@ -0,0 +1,48 @@
+package cl.kibernum.apirest.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.kibernum.apirest.config.SerializationMetricsConfig.TimedJackson2HttpMessageConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SerializationMetricsConfigTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final TimedJackson2HttpMessageConverter converter =
+			new TimedJackson2HttpMessageConverter(new ObjectMapper(), registry);
+
+	@Test
+	void recordsOneTimerPerBodyType() throws Exception {
+		write(new Uno(1));
+		write(new Uno(2));
+		write(new Dos("x"));
+
+		assertThat(registry.get("http.server.serialization").tag("type", "Uno").timer().count()).isEqualTo(2);
+		assertThat(registry.get("http.server.serialization").tag("type", "Dos").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void writesTheSameJsonAsJackson() throws Exception {
+		MockHttpOutputMessage output = write(new Dos("café"));
+
+		assertThat(output.getBodyAsString()).isEqualTo("{\"nombre\":\"café\"}");
+	}
+
+	private MockHttpOutputMessage write(Object body) throws Exception {
+		MockHttpOutputMessage output = new MockHttpOutputMessage();
+		converter.write(body, MediaType.APPLICATION_JSON, output);
+		return output;
+	}
+
+	record Uno(int valor) {
+	}
+
+	record Dos(String nombre) {
+	}
+}
@@ -0,0 +1,107 @@
+package cl.kibernum.apirest.controllers;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.kibernum.apirest.entities.Producto;
+import cl.kibernum.apirest.repositories.ProductoRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ProductoETagTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@MockitoSpyBean
+	private ProductoRepository productoRepository;
+
+	@Test
+	void matchingIfNoneMatchIsNotModified() throws Exception {
+		MvcResult created = create("etag-304");
+		String etag = created.getResponse().getHeader(HttpHeaders.ETAG);
+
+		mvc.perform(get("/api/v1/productos/" + id(created)).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		mvc.perform(get("/api/v1/productos/" + id(created)).header(HttpHeaders.IF_NONE_MATCH, "\"999\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+	}
+
+	@Test
+	void staleIfMatchIsPreconditionFailed() throws Exception {
+		MvcResult created = create("etag-412");
+		String etag = created.getResponse().getHeader(HttpHeaders.ETAG);
+		int id = id(created);
+
+		String next = mvc.perform(put("/api/v1/productos/" + id).header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content(body("etag-412", 2)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		// El ETag original ya no corresponde a la versión actual.
+		mvc.perform(put("/api/v1/productos/" + id).header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content(body("etag-412", 3)))
+				.andExpect(status().isPreconditionFailed());
+		mvc.perform(put("/api/v1/productos/" + id).header(HttpHeaders.IF_MATCH, "no-es-etag")
+				.contentType(MediaType.APPLICATION_JSON).content(body("etag-412", 3)))
+				.andExpect(status().isPreconditionFailed());
+		mvc.perform(get("/api/v1/productos/" + id))
+				.andExpect(header().string(HttpHeaders.ETAG, next))
+				.andExpect(jsonPath("$.stock").value(2));
+	}
+
+	@Test
+	void concurrentWriteWithoutIfMatchIsConflict() throws Exception {
+		int id = id(create("etag-409"));
+		// Simula que otra transacción cambió la versión entre la lectura y el flush.
+		doThrow(new ObjectOptimisticLockingFailureException(Producto.class, id))
+				.when(productoRepository).saveAndFlush(argThat(p -> p != null && p.getId() == id));
+
+		mvc.perform(put("/api/v1/productos/" + id)
+				.contentType(MediaType.APPLICATION_JSON).content(body("etag-409", 2)))
+				.andExpect(status().isConflict());
+		mvc.perform(put("/api/v1/productos/" + id).header(HttpHeaders.IF_MATCH, "*")
+				.contentType(MediaType.APPLICATION_JSON).content(body("etag-409", 2)))
+				.andExpect(status().isConflict());
+	}
+
+	private MvcResult create(String nombre) throws Exception {
+		return mvc.perform(post("/api/v1/productos").contentType(MediaType.APPLICATION_JSON).content(body(nombre, 1)))
+				.andExpect(status().isCreated())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+				.andReturn();
+	}
+
+	private int id(MvcResult result) throws Exception {
+		return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asInt();
+	}
+
+	private static String body(String nombre, int stock) {
+		return "{\"nombre\":\"" + nombre + "\",\"descripcion\":\"d\",\"stock\":" + stock + ",\"precio\":10}";
+	}
+}
@@ -0,0 +1,67 @@
+package cl.kibernum.apirest.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.kibernum.apirest.repositories.ProductoRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ProductoExportTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Test
+	void exportWritesOneJsonObjectPerProductInIdOrder() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			mvc.perform(post("/api/v1/productos").contentType(MediaType.APPLICATION_JSON)
+					.content("{\"nombre\":\"exportado-" + i + "\",\"descripcion\":\"línea con \\\"comillas\\\"\\nsalto\","
+							+ "\"stock\":1,\"precio\":10}"))
+					.andExpect(status().isCreated());
+		}
+
+		String body = mvc.perform(get("/api/v1/productos/export"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(body).endsWith("\n");
+		String[] lines = body.split("\n");
+		assertThat(lines).hasSize((int) productoRepository.count());
+		List<Integer> ids = new ArrayList<>();
+		List<String> nombres = new ArrayList<>();
+		for (String line : lines) {
+			JsonNode producto = objectMapper.readTree(line);
+			assertThat(producto.has("version")).isTrue();
+			ids.add(producto.get("id").asInt());
+			nombres.add(producto.get("nombre").asText());
+		}
+		assertThat(ids).isSorted().doesNotHaveDuplicates();
+		assertThat(nombres).contains("exportado-0", "exportado-1", "exportado-2");
+	}
+}
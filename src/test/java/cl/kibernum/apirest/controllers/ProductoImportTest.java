@@ -0,0 +1,98 @@
+package cl.kibernum.apirest.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.kibernum.apirest.repositories.ProductoRepository;
+
+@SpringBootTest(properties = "catalog.batch.chunk-size=2")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ProductoImportTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Test
+	void csvRowsAreImportedAndBadRowsReportedWithTheirLine() throws Exception {
+		String csv = "\uFEFFprecio,nombre,stock,descripcion\n"
+				+ "10,import-uno,1,\"con coma, y \"\"comillas\"\"\"\n"
+				+ "abc,import-malo,1,d\n"
+				+ "\n"
+				+ "20,import-dos,2,d\n"
+				+ "30,,3,sin nombre\n"
+				+ "40,import-uno,4,actualizado\n";
+
+		List<JsonNode> events = importar(csv, "text/csv");
+
+		assertThat(events).extracting(e -> e.get("type").asText())
+				.containsExactly("ERROR", "PROGRESS", "ERROR", "PROGRESS", "DONE");
+		assertThat(events.get(0).get("line").asLong()).isEqualTo(3);
+		assertThat(events.get(0).get("error").asText()).contains("precio");
+		assertThat(events.get(2).get("line").asLong()).isEqualTo(6);
+		JsonNode done = events.get(4);
+		assertThat(done.get("processed").asLong()).isEqualTo(5);
+		assertThat(done.get("created").asLong()).isEqualTo(2);
+		assertThat(done.get("updated").asLong()).isEqualTo(1);
+		assertThat(done.get("failed").asLong()).isEqualTo(2);
+
+		assertThat(productoRepository.findByNombre("import-uno")).get()
+				.satisfies(p -> assertThat(p.getDescripcion()).isEqualTo("actualizado"));
+		assertThat(productoRepository.findByNombre("import-dos")).isPresent();
+		assertThat(productoRepository.findByNombre("import-malo")).isEmpty();
+	}
+
+	@Test
+	void ndjsonRowsAreImported() throws Exception {
+		String ndjson = """
+				{"nombre":"import-json","descripcion":"d","stock":1,"precio":5}
+				{"nombre":
+				""";
+
+		List<JsonNode> events = importar(ndjson, "application/x-ndjson");
+
+		assertThat(events).extracting(e -> e.get("type").asText()).containsExactly("ERROR", "PROGRESS", "DONE");
+		assertThat(events.get(0).get("line").asLong()).isEqualTo(2);
+		assertThat(events.get(0).get("error").asText()).startsWith("JSON inválido");
+		assertThat(productoRepository.findByNombre("import-json")).isPresent();
+	}
+
+	@Test
+	void csvWithoutRequiredColumnsIsBadRequest() throws Exception {
+		mvc.perform(post("/api/v1/productos/import").contentType("text/csv").content("nombre,stock\nx,1\n"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private List<JsonNode> importar(String body, String contentType) throws Exception {
+		String response = mvc.perform(post("/api/v1/productos/import").contentType(contentType).content(body)
+				.accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		List<JsonNode> events = new ArrayList<>();
+		for (String line : response.split("\n")) {
+			events.add(objectMapper.readTree(line));
+		}
+		return events;
+	}
+}
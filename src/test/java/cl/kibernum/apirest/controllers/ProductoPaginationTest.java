@@ -0,0 +1,87 @@
+package cl.kibernum.apirest.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.kibernum.apirest.services.ProductoRangeIndex;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ProductoPaginationTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ProductoRangeIndex rangeIndex;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void walksEveryProductOnceInIdOrder() throws Exception {
+		List<Integer> created = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			String body = mvc.perform(post("/api/v1/productos").contentType(MediaType.APPLICATION_JSON)
+					.content("{\"nombre\":\"pagina-" + i + "\",\"descripcion\":\"d\",\"stock\":1,\"precio\":10}"))
+					.andExpect(status().isCreated())
+					.andReturn().getResponse().getContentAsString();
+			created.add(objectMapper.readTree(body).get("id").asInt());
+		}
+
+		List<Integer> seen = new ArrayList<>();
+		String after = null;
+		do {
+			var request = get("/api/v1/productos").param("limit", "2");
+			if (after != null) {
+				request.param("after", after);
+			}
+			JsonNode page = objectMapper.readTree(mvc.perform(request).andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString());
+			assertThat(page.get("items").size()).isLessThanOrEqualTo(2);
+			page.get("items").forEach(item -> seen.add(item.get("id").asInt()));
+			after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+		} while (after != null);
+
+		assertThat(seen).isSorted().doesNotHaveDuplicates().containsAll(created);
+	}
+
+	@Test
+	void badCursorIsBadRequest() throws Exception {
+		mvc.perform(get("/api/v1/productos").param("after", "no-es-un-cursor"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/api/v1/productos/activos").param("after", "%%%"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void forgedCursorOnTheRangeIndexIsBadRequest() throws Exception {
+		assertThat(rangeIndex.isReady()).isTrue();
+		for (String raw : new String[] { "p:-5", "p:" + Integer.MAX_VALUE }) {
+			String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+			mvc.perform(get("/api/v1/productos").param("after", cursor).param("minPrecio", "0"))
+					.andExpect(status().isBadRequest());
+			mvc.perform(get("/api/v1/productos/activos").param("after", cursor).param("maxPrecio", "1000"))
+					.andExpect(status().isBadRequest());
+		}
+	}
+}
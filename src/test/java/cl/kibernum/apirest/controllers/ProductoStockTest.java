@@ -0,0 +1,132 @@
+package cl.kibernum.apirest.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ProductoStockTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void deltaIsAppliedAtomically() throws Exception {
+		int id = create("stock-delta", 10);
+
+		patchStock(id, -4).andExpect(status().isNoContent());
+		patchStock(id, 2).andExpect(status().isNoContent());
+
+		assertThat(stock(id)).isEqualTo(8);
+	}
+
+	@Test
+	void deltaThatWouldGoNegativeIsConflict() throws Exception {
+		int id = create("stock-insuficiente", 3);
+
+		patchStock(id, -4).andExpect(status().isConflict());
+
+		assertThat(stock(id)).isEqualTo(3);
+	}
+
+	@Test
+	void rangeFilterSeesTheAdjustedStock() throws Exception {
+		int id = create("stock-rango", 3, 8101);
+
+		patchStock(id, 4).andExpect(status().isNoContent());
+		patchStock(id, -1).andExpect(status().isNoContent());
+
+		mvc.perform(get("/api/v1/productos?minPrecio=8101&maxPrecio=8101&minStock=6"))
+				.andExpect(jsonPath("$.items[*].id").value(contains(id)));
+		mvc.perform(get("/api/v1/productos?minPrecio=8101&maxPrecio=8101&minStock=7"))
+				.andExpect(jsonPath("$.items").isEmpty());
+	}
+
+	@Test
+	void unknownProductIsNotFound() throws Exception {
+		patchStock(999_999, -1).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void batchAppliesAllOrNothing() throws Exception {
+		int a = create("stock-lote-a", 5);
+		int b = create("stock-lote-b", 1);
+
+		mvc.perform(patch("/api/v1/productos/stock").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"id\":" + a + ",\"delta\":-2},{\"id\":" + b + ",\"delta\":-2}]"))
+				.andExpect(status().isConflict());
+		assertThat(stock(a)).isEqualTo(5);
+		assertThat(stock(b)).isEqualTo(1);
+
+		mvc.perform(patch("/api/v1/productos/stock").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"id\":" + a + ",\"delta\":-2},{\"id\":999999,\"delta\":1}]"))
+				.andExpect(status().isNotFound());
+		assertThat(stock(a)).isEqualTo(5);
+
+		mvc.perform(patch("/api/v1/productos/stock").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"id\":" + a + ",\"delta\":-2},{\"id\":" + b + ",\"delta\":-1},{\"id\":" + a + ",\"delta\":-1}]"))
+				.andExpect(status().isNoContent());
+		assertThat(stock(a)).isEqualTo(2);
+		assertThat(stock(b)).isZero();
+	}
+
+	@Test
+	void batchItemWithoutIdIsBadRequest() throws Exception {
+		mvc.perform(patch("/api/v1/productos/stock").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"delta\":-1}]"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void batchWhoseDeltasOverflowIsBadRequest() throws Exception {
+		int id = create("stock-desborde", 5);
+
+		mvc.perform(patch("/api/v1/productos/stock").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"id\":" + id + ",\"delta\":" + Integer.MAX_VALUE + "},{\"id\":" + id + ",\"delta\":1}]"))
+				.andExpect(status().isBadRequest());
+		patchStock(id, Integer.MAX_VALUE).andExpect(status().isBadRequest());
+		assertThat(stock(id)).isEqualTo(5);
+	}
+
+	private org.springframework.test.web.servlet.ResultActions patchStock(int id, int delta) throws Exception {
+		return mvc.perform(patch("/api/v1/productos/" + id + "/stock").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"delta\":" + delta + "}"));
+	}
+
+	private int create(String nombre, int stock) throws Exception {
+		return create(nombre, stock, 10);
+	}
+
+	private int create(String nombre, int stock, double precio) throws Exception {
+		String body = mvc.perform(post("/api/v1/productos").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"nombre\":\"" + nombre + "\",\"descripcion\":\"d\",\"stock\":" + stock + ",\"precio\":" + precio + "}"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("id").asInt();
+	}
+
+	private int stock(int id) throws Exception {
+		String body = mvc.perform(get("/api/v1/productos/" + id)).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("stock").asInt();
+	}
+}
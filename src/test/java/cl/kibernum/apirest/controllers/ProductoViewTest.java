@@ -0,0 +1,54 @@
+package cl.kibernum.apirest.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ProductoViewTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void listingsReturnTheSameJsonAsTheEntity() throws Exception {
+		long since = json(get("/api/v1/productos/changes").param("since", "0").param("limit", "1")).get("revision").asLong();
+		JsonNode created = json(post("/api/v1/productos").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"nombre\":\"proyeccion-unica\",\"descripcion\":\"vista\",\"stock\":4,\"precio\":987654.5}"));
+		JsonNode entity = json(get("/api/v1/productos/" + created.get("id").asInt()));
+
+		JsonNode listed = json(get("/api/v1/productos").param("minPrecio", "987654.5")).get("items");
+		JsonNode active = json(get("/api/v1/productos/activos").param("minPrecio", "987654.5")).get("items");
+		JsonNode found = json(get("/api/v1/productos/search").param("q", "proyeccion-unica")).get("items");
+		JsonNode changed = json(get("/api/v1/productos/changes").param("since", String.valueOf(since))).get("items");
+
+		assertThat(listed).containsExactly(entity);
+		assertThat(active).containsExactly(entity);
+		assertThat(found).containsExactly(entity);
+		assertThat(changed).contains(entity);
+	}
+
+	private JsonNode json(MockHttpServletRequestBuilder request) throws Exception {
+		String body = mvc.perform(request).andExpect(status().is2xxSuccessful())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+}
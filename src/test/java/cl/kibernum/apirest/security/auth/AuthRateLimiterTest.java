@@ -0,0 +1,161 @@
+package cl.kibernum.apirest.security.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import cl.kibernum.apirest.security.auth.AuthRateLimiter.Limit;
+import cl.kibernum.apirest.security.exception.RateLimitExceededException;
+import cl.kibernum.apirest.security.jwt.JwtProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuthRateLimiterTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final long T0 = 1_000 * SECOND;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void burstUpToCapacityThenWaitsOneInterval() {
+		AuthRateLimiter limiter = limiter(3, Duration.ofSeconds(3), 16, 1000);
+
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", T0)).isZero();
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", T0)).isZero();
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", T0)).isZero();
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", T0)).isEqualTo(SECOND);
+		// Un rechazo no consume: la espera no crece con los reintentos.
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", T0 + SECOND / 2)).isEqualTo(SECOND / 2);
+	}
+
+	@Test
+	void tokensRefillAtTheConfiguredRate() {
+		AuthRateLimiter limiter = limiter(3, Duration.ofSeconds(3), 16, 1000);
+		for (int i = 0; i < 3; i++) {
+			limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", T0);
+		}
+
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", T0 + SECOND)).isZero();
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", T0 + SECOND)).isEqualTo(SECOND);
+
+		// Tras un período completo sin uso la cubeta vuelve a permitir la ráfaga entera, no más.
+		long later = T0 + 10 * SECOND;
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", later)).isZero();
+		}
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", later)).isPositive();
+	}
+
+	@Test
+	void acquireThrowsWithRetryAfterRoundedUp() {
+		AuthRateLimiter limiter = limiter(1, Duration.ofSeconds(10), 16, 1000);
+		limiter.acquire(Limit.LOGIN_USERNAME, "ana");
+
+		assertThatThrownBy(() -> limiter.acquire(Limit.LOGIN_USERNAME, "ana"))
+				.isInstanceOfSatisfying(RateLimitExceededException.class,
+						e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(10));
+		assertThat(registry.get("auth.rate.limited").tag("limit", "login_username").counter().count()).isEqualTo(1);
+		assertThat(registry.get("auth.rate.limited").tag("limit", "login_ip").counter().count()).isZero();
+	}
+
+	@Test
+	void usernamesAreCaseFoldedButOtherKeysAreNot() {
+		AuthRateLimiter limiter = limiter(1, Duration.ofSeconds(10), 16, 1000);
+
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "Ana", T0)).isZero();
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ANA", T0)).isPositive();
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", T0)).isPositive();
+		// Mismo valor en otro límite: otra cubeta.
+		assertThat(limiter.tryAcquire(Limit.REGISTER_IP, "ana", T0)).isZero();
+		assertThat(limiter.tryAcquire(Limit.REGISTER_IP, "ANA", T0)).isZero();
+	}
+
+	@Test
+	void fullIpStripePrefersRefilledBucketsThenLeastRecentlyUsed() {
+		AuthRateLimiter limiter = limiter(1, Duration.ofSeconds(60), 1, 3);
+		limiter.tryAcquire(Limit.REGISTER_IP, "10.0.0.1", T0);
+		limiter.tryAcquire(Limit.REGISTER_IP, "10.0.0.2", T0 + 30 * SECOND);
+		limiter.tryAcquire(Limit.REGISTER_IP, "10.0.0.3", T0 + 30 * SECOND);
+
+		// A los 60 s la cubeta de .1 ya se rellenó: se reemplaza esa aunque .2 no se haya vuelto a usar.
+		assertThat(limiter.tryAcquire(Limit.REGISTER_IP, "10.0.0.4", T0 + 60 * SECOND)).isZero();
+		assertThat(limiter.tryAcquire(Limit.REGISTER_IP, "10.0.0.2", T0 + 60 * SECOND)).isPositive();
+
+		// Sin cubetas llenas se descarta la menos usada (.3): solo reinicia el presupuesto de esa IP.
+		assertThat(limiter.tryAcquire(Limit.REGISTER_IP, "10.0.0.5", T0 + 60 * SECOND)).isZero();
+		assertThat(limiter.size()).isEqualTo(3);
+		assertThat(limiter.tryAcquire(Limit.REGISTER_IP, "10.0.0.3", T0 + 60 * SECOND)).isZero();
+	}
+
+	@Test
+	void floodingAStripeDoesNotResetAUsernameBudget() {
+		AuthRateLimiter limiter = limiter(1, Duration.ofSeconds(60), 1, 4);
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "victima", T0)).isZero();
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "victima", T0)).isPositive();
+
+		// IPs rotativas no comparten mapa con los usuarios.
+		for (int i = 0; i < 100; i++) {
+			limiter.tryAcquire(Limit.LOGIN_IP, "10.0.0." + i, T0 + i);
+			limiter.tryAcquire(Limit.REGISTER_IP, "10.0.1." + i, T0 + i);
+		}
+		// Usuarios aleatorios: llenan la stripe y después se rechazan en vez de desplazar a "victima".
+		int admitted = 0;
+		for (int i = 0; i < 100; i++) {
+			if (limiter.tryAcquire(Limit.LOGIN_USERNAME, "random-" + i, T0 + i) == 0) {
+				admitted++;
+			}
+		}
+
+		assertThat(admitted).isEqualTo(3);
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "victima", T0 + SECOND)).isPositive();
+		// Al rellenarse una cubeta vuelve a haber lugar para usuarios nuevos.
+		assertThat(limiter.tryAcquire(Limit.LOGIN_USERNAME, "otro", T0 + 61 * SECOND)).isZero();
+	}
+
+	@Test
+	void idleBucketsAreEvictedOnceFull() {
+		AuthRateLimiter limiter = limiter(3, Duration.ofSeconds(3), 16, 1000);
+		limiter.tryAcquire(Limit.LOGIN_USERNAME, "ana", T0);
+		limiter.tryAcquire(Limit.LOGIN_USERNAME, "beto", T0);
+		limiter.tryAcquire(Limit.LOGIN_USERNAME, "beto", T0);
+
+		limiter.evictIdle(T0 + SECOND);
+		assertThat(limiter.size()).isEqualTo(1);
+
+		limiter.evictIdle(T0 + 2 * SECOND);
+		assertThat(limiter.size()).isZero();
+	}
+
+	@Test
+	void disabledLimiterAndNullKeysNeverThrow() {
+		JwtProperties props = properties(1, Duration.ofMinutes(1), 16, 1000);
+		props.getAuth().getRateLimit().setEnabled(false);
+		AuthRateLimiter disabled = new AuthRateLimiter(props, registry);
+		AuthRateLimiter enabled = limiter(1, Duration.ofMinutes(1), 16, 1000);
+
+		for (int i = 0; i < 5; i++) {
+			disabled.acquire(Limit.LOGIN_USERNAME, "ana");
+			enabled.acquire(Limit.LOGIN_USERNAME, null);
+		}
+		assertThat(disabled.size()).isZero();
+		assertThat(enabled.size()).isZero();
+	}
+
+	private AuthRateLimiter limiter(int capacity, Duration period, int stripes, int maxKeys) {
+		return new AuthRateLimiter(properties(capacity, period, stripes, maxKeys), registry);
+	}
+
+	private static JwtProperties properties(int capacity, Duration period, int stripes, int maxKeys) {
+		JwtProperties props = new JwtProperties();
+		JwtProperties.RateLimit rateLimit = props.getAuth().getRateLimit();
+		rateLimit.setStripes(stripes);
+		rateLimit.setMaxKeys(maxKeys);
+		rateLimit.setLoginPerUsername(new JwtProperties.Budget(capacity, period));
+		rateLimit.setRegisterPerIp(new JwtProperties.Budget(capacity, period));
+		return props;
+	}
+}
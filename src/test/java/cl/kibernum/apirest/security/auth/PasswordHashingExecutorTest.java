@@ -0,0 +1,89 @@
+package cl.kibernum.apirest.security.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import cl.kibernum.apirest.security.exception.HashingCapacityExceededException;
+import cl.kibernum.apirest.security.jwt.JwtProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHashingExecutorTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private PasswordHashingExecutor executor;
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void runsOffTheCallingThreadAndReturnsTheResult() {
+		executor = executor(1, 1, Duration.ofSeconds(5));
+
+		String thread = executor.execute(() -> Thread.currentThread().getName());
+
+		assertThat(thread).startsWith("password-hash-");
+		assertThat(registry.get("auth.hash.duration").tag("outcome", "success").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void taskExceptionsPropagateUnchanged() {
+		executor = executor(1, 1, Duration.ofSeconds(5));
+
+		assertThatThrownBy(() -> executor.execute(() -> {
+			throw new BadCredentialsException("Bad credentials");
+		})).isInstanceOf(BadCredentialsException.class);
+		assertThat(registry.get("auth.hash.duration").tag("outcome", "failure").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void fullQueueIsRejectedImmediately() throws Exception {
+		executor = executor(1, 1, Duration.ofSeconds(5));
+		CountDownLatch running = new CountDownLatch(1);
+		// Ocupa el único hilo y el único lugar de la cola.
+		CompletableFuture.runAsync(() -> executor.execute(() -> {
+			running.countDown();
+			return release.await(10, TimeUnit.SECONDS);
+		}));
+		assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture.runAsync(() -> executor.execute(() -> true));
+		while (registry.get("auth.hash.queue.size").gauge().value() < 1) {
+			Thread.onSpinWait();
+		}
+
+		assertThatThrownBy(() -> executor.execute(() -> true)).isInstanceOf(HashingCapacityExceededException.class);
+		assertThat(registry.get("auth.hash.rejected").counter().count()).isEqualTo(1);
+		assertThat(registry.get("auth.hash.active").gauge().value()).isEqualTo(1);
+	}
+
+	@Test
+	void slowTaskTimesOut() {
+		executor = executor(1, 1, Duration.ofMillis(50));
+
+		assertThatThrownBy(() -> executor.execute(() -> release.await(10, TimeUnit.SECONDS)))
+				.isInstanceOf(HashingCapacityExceededException.class);
+		assertThat(registry.get("auth.hash.rejected").counter().count()).isEqualTo(1);
+	}
+
+	private PasswordHashingExecutor executor(int threads, int queue, Duration timeout) {
+		JwtProperties props = new JwtProperties();
+		props.getAuth().setHashThreads(threads);
+		props.getAuth().setHashQueueCapacity(queue);
+		props.getAuth().setHashTimeout(timeout);
+		return new PasswordHashingExecutor(props, registry);
+	}
+}
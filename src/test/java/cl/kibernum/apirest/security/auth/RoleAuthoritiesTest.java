@@ -0,0 +1,56 @@
+package cl.kibernum.apirest.security.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import cl.kibernum.apirest.security.domain.Role;
+
+class RoleAuthoritiesTest {
+
+	@Test
+	void maskAndForMaskRoundTrip() {
+		int mask = RoleAuthorities.mask(Set.of(Role.ROLE_ADMIN, Role.ROLE_USER));
+
+		assertThat(mask).isEqualTo(0b11);
+		// Orden del enum, no del Set.
+		assertThat(RoleAuthorities.forMask(mask)).extracting(GrantedAuthority::getAuthority)
+			.containsExactly("ROLE_USER", "ROLE_ADMIN");
+		assertThat(RoleAuthorities.forMask(RoleAuthorities.mask(List.of()))).isEmpty();
+	}
+
+	@Test
+	void forMaskRejectsUnknownBits() {
+		assertThat(RoleAuthorities.forMask(1 << Role.values().length)).isNull();
+		assertThat(RoleAuthorities.forMask(-1)).isNull();
+	}
+
+	@Test
+	void forNamesAcceptsNamesWithAndWithoutPrefix() {
+		List<GrantedAuthority> prefixed = RoleAuthorities.forNames(List.of("ROLE_ADMIN"));
+		List<GrantedAuthority> plain = RoleAuthorities.forNames(List.of("ADMIN"));
+
+		assertThat(plain).isSameAs(prefixed);
+		assertThat(plain).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+	}
+
+	@Test
+	void sameMaskReturnsSharedList() {
+		int mask = RoleAuthorities.mask(List.of(Role.ROLE_USER));
+
+		assertThat(RoleAuthorities.forMask(mask)).isSameAs(RoleAuthorities.forMask(mask));
+		assertThat(RoleAuthorities.forNames(List.of("USER", "ROLE_USER"))).isSameAs(RoleAuthorities.forMask(mask));
+	}
+
+	@Test
+	void forNamesKeepsUnknownRoles() {
+		List<GrantedAuthority> authorities = RoleAuthorities.forNames(List.of("USER", "AUDITOR"));
+
+		assertThat(authorities).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER", "ROLE_AUDITOR");
+		assertThat(authorities).isNotSameAs(RoleAuthorities.forNames(List.of("USER", "AUDITOR")));
+	}
+}
@@ -0,0 +1,74 @@
+package cl.kibernum.apirest.security.controller;
+
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import cl.kibernum.apirest.security.auth.PasswordHashingExecutor;
+import cl.kibernum.apirest.security.repository.UserAccountRepository;
+
+@SpringBootTest(properties = {
+		"security.auth.rate-limit.login-per-ip.capacity=2",
+		"security.auth.rate-limit.login-per-ip.period=1m",
+		"security.auth.rate-limit.login-per-username.capacity=1",
+		"security.auth.rate-limit.login-per-username.period=1m" })
+@AutoConfigureMockMvc
+class AuthRateLimitTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@MockitoSpyBean
+	private PasswordHashingExecutor hashingExecutor;
+
+	@MockitoSpyBean
+	private UserAccountRepository userRepo;
+
+	@Test
+	void usernameLimitAnswers429BeforeHashingOrQueries() throws Exception {
+		login("10.0.0.1", "limitado").andExpect(status().isUnauthorized());
+		clearInvocations(hashingExecutor, userRepo);
+
+		// Otra IP y otra capitalización: cuenta contra el mismo usuario.
+		login("10.0.0.2", "LIMITADO")
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "60"));
+
+		verifyNoInteractions(hashingExecutor, userRepo);
+	}
+
+	@Test
+	void ipLimitAnswers429BeforeHashingOrQueries() throws Exception {
+		login("10.0.0.9", "ip-uno").andExpect(status().isUnauthorized());
+		login("10.0.0.9", "ip-dos").andExpect(status().isUnauthorized());
+		clearInvocations(hashingExecutor, userRepo);
+
+		login("10.0.0.9", "ip-tres")
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+		verifyNoInteractions(hashingExecutor, userRepo);
+	}
+
+	private ResultActions login(String ip, String username) throws Exception {
+		return mvc.perform(post("/api/v1/auth/login")
+				.with(request -> {
+					request.setRemoteAddr(ip);
+					return request;
+				})
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"" + username + "\",\"password\":\"clave-incorrecta\"}"));
+	}
+}
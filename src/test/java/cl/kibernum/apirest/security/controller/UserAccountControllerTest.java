@@ -0,0 +1,116 @@
+package cl.kibernum.apirest.security.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import cl.kibernum.apirest.security.domain.Role;
+import cl.kibernum.apirest.security.domain.UserAccount;
+import cl.kibernum.apirest.security.repository.UserAccountRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class UserAccountControllerTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private UserAccountRepository userRepo;
+
+	@BeforeEach
+	void setUp() {
+		if (userRepo.findByUsername("like-guion").isPresent()) {
+			return;
+		}
+		userRepo.save(user("like-guion", "like_a@esc.cl", "Beatriz", true));
+		userRepo.save(user("like-letra", "likexa@esc.cl", "Andrea", true));
+		userRepo.save(user("like-porcentaje", "like%b@esc.cl", "Carla", false));
+		userRepo.save(user("like-otro", "likezzb@esc.cl", "Daniela", true));
+	}
+
+	@Test
+	void emailPrefixEscapesLikeWildcards() throws Exception {
+		mvc.perform(get("/api/v1/users").param("email", "like_"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[*].email").value(contains("like_a@esc.cl")));
+		mvc.perform(get("/api/v1/users").param("email", "like%"))
+				.andExpect(jsonPath("$.content[*].email").value(contains("like%b@esc.cl")));
+		mvc.perform(get("/api/v1/users").param("email", "like").param("sort", "email"))
+				.andExpect(jsonPath("$.page.totalElements").value(4));
+	}
+
+	@Test
+	void filtersBySortableColumnsAndActive() throws Exception {
+		mvc.perform(get("/api/v1/users").param("email", "like").param("sort", "nombre,desc"))
+				.andExpect(jsonPath("$.content[*].username")
+						.value(contains("like-otro", "like-porcentaje", "like-guion", "like-letra")));
+		mvc.perform(get("/api/v1/users").param("email", "like").param("active", "false"))
+				.andExpect(jsonPath("$.content[*].username").value(contains("like-porcentaje")));
+		mvc.perform(get("/api/v1/users").param("email", "like").param("sort", "nombre").param("size", "1")
+				.param("page", "1"))
+				.andExpect(jsonPath("$.content[*].username").value(contains("like-guion")))
+				.andExpect(jsonPath("$.content[0].roles[0]").value("ROLE_USER"))
+				.andExpect(jsonPath("$.page.totalPages").value(4));
+	}
+
+	@Test
+	void sortOutsideTheWhitelistIsBadRequest() throws Exception {
+		mvc.perform(get("/api/v1/users").param("sort", "password"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/api/v1/users").param("sort", "tokenVersion,desc"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void pageSizeIsCapped() throws Exception {
+		mvc.perform(get("/api/v1/users").param("size", "5000"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.page.size").value(200));
+	}
+
+	@Test
+	void getByIdReadsThePathAndHidesCredentials() throws Exception {
+		Long id = userRepo.findByUsername("like-letra").orElseThrow().getId();
+
+		mvc.perform(get("/api/v1/users/" + id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(id))
+				.andExpect(jsonPath("$.username").value("like-letra"))
+				.andExpect(jsonPath("$.email").value("likexa@esc.cl"))
+				.andExpect(jsonPath("$.active").value(true))
+				.andExpect(jsonPath("$.password").doesNotExist())
+				.andExpect(jsonPath("$.tokenVersion").doesNotExist());
+		mvc.perform(get("/api/v1/users").param("email", "likexa"))
+				.andExpect(jsonPath("$.content[0].username").value("like-letra"))
+				.andExpect(jsonPath("$.content[0].password").doesNotExist());
+		mvc.perform(get("/api/v1/users/" + Long.MAX_VALUE))
+				.andExpect(status().isNotFound());
+	}
+
+	private static UserAccount user(String username, String email, String nombre, boolean active) {
+		UserAccount user = new UserAccount();
+		user.setUsername(username);
+		user.setNombre(nombre);
+		user.setApellido("a");
+		user.setEmail(email);
+		user.setPassword("{noop}x");
+		user.setRoles(Set.of(Role.ROLE_USER));
+		if (!active) {
+			user.desactivateUser();
+		}
+		return user;
+	}
+}
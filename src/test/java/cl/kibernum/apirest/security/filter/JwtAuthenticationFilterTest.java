@@ -0,0 +1,146 @@
+package cl.kibernum.apirest.security.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import cl.kibernum.apirest.security.domain.Role;
+import cl.kibernum.apirest.security.domain.UserAccount;
+import cl.kibernum.apirest.security.jwt.JwtProperties;
+import cl.kibernum.apirest.security.jwt.JwtService;
+import cl.kibernum.apirest.security.jwt.TokenDenylist;
+import cl.kibernum.apirest.security.services.TokenVersionIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtAuthenticationFilterTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private JwtService jwtService;
+	private TokenDenylist denylist;
+	private TokenVersionIndex tokenVersions;
+	private JwtAuthenticationFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		JwtProperties props = new JwtProperties();
+		props.getJwt().setSecret("0123456789abcdef0123456789abcdef");
+		props.getJwt().setDenylistEnabled(true);
+		jwtService = new JwtService(props, registry);
+		denylist = new TokenDenylist(props, Clock.systemUTC());
+		tokenVersions = mock(TokenVersionIndex.class);
+		when(tokenVersions.isCurrent(eq("filtro"), anyInt())).thenAnswer(inv -> inv.<Integer>getArgument(1) == 0);
+		filter = new JwtAuthenticationFilter(jwtService, denylist, tokenVersions, registry);
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void validTokenAuthenticatesAndContinues() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		MockHttpServletResponse response = run(bearer(jwtService.generateAccessToken(user())), chain);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(chain.getRequest()).isNotNull();
+		Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+		assertThat(auth.getName()).isEqualTo("filtro");
+		assertThat(auth.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+	}
+
+	@Test
+	void malformedAndInvalidTokensAreRejectedWithTheirReason() throws Exception {
+		assertRejected(bearer("basura"), "malformed");
+		assertRejected(bearer("aaaaaaaa.bbbbbbbb.cccccccc"), "malformed");
+
+		JwtProperties other = new JwtProperties();
+		other.getJwt().setSecret("fedcba9876543210fedcba9876543210");
+		String foreign = new JwtService(other, new SimpleMeterRegistry()).generateAccessToken(user());
+		assertRejected(bearer(foreign), "invalid");
+	}
+
+	@Test
+	void revokedTokenIsRejectedEvenWhenItIsCached() throws Exception {
+		String token = jwtService.generateAccessToken(user());
+		assertThat(run(bearer(token), new MockFilterChain()).getStatus()).isEqualTo(200);
+
+		JwtService.JwtPayload payload = jwtService.validate(token).getPayload();
+		denylist.revoke(payload.getJti(), payload.getExpiresAt().getTime());
+
+		assertRejected(bearer(token), "revoked");
+		assertThat(registry.get("jwt.verify").tag("outcome", "cached").timer().count()).isGreaterThanOrEqualTo(2);
+	}
+
+	@Test
+	void staleTokenIsRejectedEvenWhenItIsCached() throws Exception {
+		String token = jwtService.generateAccessToken(user());
+		assertThat(run(bearer(token), new MockFilterChain()).getStatus()).isEqualTo(200);
+
+		// El usuario subió su tokenVersion (cambio de clave, logout global).
+		when(tokenVersions.isCurrent("filtro", 0)).thenReturn(false);
+
+		assertRejected(bearer(token), "stale");
+		assertThat(registry.get("jwt.verify").tag("outcome", "cached").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void requestsWithoutBearerAndAuthRoutesPassThrough() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		assertThat(run(new MockHttpServletRequest("GET", "/api/v1/productos"), chain).getStatus()).isEqualTo(200);
+		assertThat(chain.getRequest()).isNotNull();
+
+		MockHttpServletRequest login = bearer("basura");
+		login.setRequestURI("/api/v1/auth/login");
+		chain = new MockFilterChain();
+		assertThat(run(login, chain).getStatus()).isEqualTo(200);
+		assertThat(chain.getRequest()).isNotNull();
+		assertThat(registry.get("jwt.rejected").tag("reason", "malformed").counter().count()).isZero();
+	}
+
+	private void assertRejected(MockHttpServletRequest request, String reason) throws Exception {
+		double before = registry.get("jwt.rejected").tag("reason", reason).counter().count();
+		MockFilterChain chain = new MockFilterChain();
+
+		MockHttpServletResponse response = run(request, chain);
+
+		assertThat(response.getStatus()).isEqualTo(401);
+		assertThat(response.getContentAsString()).isEqualTo("{\"error\":\"Unauthorized\",\"code\":401}");
+		assertThat(chain.getRequest()).isNull();
+		assertThat(registry.get("jwt.rejected").tag("reason", reason).counter().count()).isEqualTo(before + 1);
+	}
+
+	private MockHttpServletResponse run(MockHttpServletRequest request, MockFilterChain chain) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	private static MockHttpServletRequest bearer(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/productos");
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+		return request;
+	}
+
+	private static UserAccount user() {
+		UserAccount user = new UserAccount();
+		user.setUsername("filtro");
+		user.setRoles(Set.of(Role.ROLE_USER));
+		return user;
+	}
+}
@@ -0,0 +1,218 @@
+package cl.kibernum.apirest.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import cl.kibernum.apirest.security.domain.Role;
+import cl.kibernum.apirest.security.domain.UserAccount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtKeySetTest {
+
+	private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+	@TempDir
+	Path keysDir;
+
+	@Test
+	void generatesAKeyWhenNoneCanSign() throws Exception {
+		JwtService service = es256(false, true);
+
+		List<Path> files = jsonFiles();
+		assertThat(files).hasSize(1);
+		String kid = kid(service.generateAccessToken(user()));
+		assertThat(files.get(0).getFileName().toString()).isEqualTo(kid + ".json");
+		assertThat(ECKey.parse(Files.readString(files.get(0))).isPrivate()).isTrue();
+	}
+
+	@Test
+	void withoutASigningKeyStartupFails() throws Exception {
+		write("retirada", key("retirada").toPublicJWK(), 1);
+
+		assertThatThrownBy(() -> es256(false, false)).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void newestPrivateKeySignsAndOlderKeysStillVerify() throws Exception {
+		write("antigua", key("antigua"), 1);
+		JwtService service = es256(false, false);
+		String oldToken = service.generateAccessToken(user());
+		assertThat(kid(oldToken)).isEqualTo("antigua");
+
+		write("nueva", key("nueva"), 2);
+		service.reloadKeys();
+
+		String newToken = service.generateAccessToken(user());
+		assertThat(kid(newToken)).isEqualTo("nueva");
+		assertThat(service.validate(newToken).isValid()).isTrue();
+		assertThat(service.validate(oldToken).isValid()).isTrue();
+	}
+
+	@Test
+	void publicOnlyKeyVerifiesButNeverSigns() throws Exception {
+		ECKey retired = key("retirada");
+		write("retirada", retired, 1);
+		write("vigente", key("vigente"), 2);
+		JwtService service = es256(false, false);
+		String token = sign(retired);
+
+		// La llave retirada queda solo con su parte pública.
+		write("retirada", retired.toPublicJWK(), 1);
+		service.reloadKeys();
+
+		assertThat(service.validate(token).isValid()).isTrue();
+		assertThat(kid(service.generateAccessToken(user()))).isEqualTo("vigente");
+	}
+
+	@Test
+	void removingAKeyRejectsItsCachedTokens() throws Exception {
+		ECKey retired = key("retirada");
+		write("retirada", retired, 1);
+		write("vigente", key("vigente"), 2);
+		JwtService service = es256(false, false);
+		String token = sign(retired);
+		assertThat(service.validate(token).isValid()).isTrue();
+
+		Files.delete(keysDir.resolve("retirada.json"));
+		service.reloadKeys();
+
+		assertThat(service.validate(token).getStatus()).isEqualTo(TokenValidation.Status.INVALID_SIGNATURE);
+	}
+
+	@Test
+	void reloadWithoutSigningKeyKeepsThePreviousSet() throws Exception {
+		ECKey only = key("unica");
+		write("unica", only, 1);
+		JwtService service = es256(false, false);
+
+		write("unica", only.toPublicJWK(), 2);
+		service.reloadKeys();
+
+		assertThat(kid(service.generateAccessToken(user()))).isEqualTo("unica");
+	}
+
+	@Test
+	void hs256TokensAreAcceptedOnlyWhenEnabled() throws Exception {
+		write("vigente", key("vigente"), 1);
+		JwtProperties hsProps = new JwtProperties();
+		hsProps.getJwt().setSecret(SECRET);
+		String hsToken = new JwtService(hsProps, new SimpleMeterRegistry()).generateAccessToken(user());
+
+		assertThat(es256(false, false).validate(hsToken).getStatus()).isEqualTo(TokenValidation.Status.INVALID_SIGNATURE);
+		assertThat(es256(true, false).validate(hsToken).isValid()).isTrue();
+		// En modo HS256 un token ES256 nunca se acepta.
+		String esToken = es256(false, false).generateAccessToken(user());
+		assertThat(new JwtService(hsProps, new SimpleMeterRegistry()).validate(esToken).getStatus())
+				.isEqualTo(TokenValidation.Status.INVALID_SIGNATURE);
+	}
+
+	@Test
+	void jwksPublishesOnlyPublicPartsNewestFirst() throws Exception {
+		write("antigua", key("antigua"), 1);
+		write("nueva", key("nueva"), 2);
+		write("retirada", key("retirada").toPublicJWK(), 0);
+		write("no-es-ec", "{\"kty\":\"oct\",\"k\":\"AAAA\"}", 3);
+		Files.writeString(keysDir.resolve("basura.json"), "no es json");
+
+		JwtService service = es256(false, false);
+		String jwks = service.publicJwks();
+
+		assertThat(jwks).doesNotContain("\"d\"");
+		JWKSet set = JWKSet.parse(jwks);
+		assertThat(set.getKeys()).extracting(jwk -> jwk.getKeyID()).containsExactly("nueva", "antigua", "retirada");
+		assertThat(set.getKeys()).allMatch(jwk -> !jwk.isPrivate());
+
+		JwtProperties hsProps = new JwtProperties();
+		hsProps.getJwt().setSecret(SECRET);
+		assertThat(new JwtService(hsProps, new SimpleMeterRegistry()).publicJwks()).isNull();
+	}
+
+	@Test
+	void keysWithoutKidUseTheirThumbprint() throws Exception {
+		ECKey key = new ECKeyGenerator(Curve.P_256).generate();
+		write("sin-kid", key, 1);
+
+		JwtKeySet keySet = new JwtKeySet(keysDir, false);
+
+		assertThat(keySet.current().signingKid()).isEqualTo(key.computeThumbprint().toString());
+		assertThat(keySet.reload()).isFalse();
+	}
+
+	private JwtService es256(boolean acceptHs256, boolean generate) {
+		JwtProperties props = new JwtProperties();
+		props.getJwt().setAlgorithm("ES256");
+		props.getJwt().setKeysDir(keysDir.toString());
+		props.getJwt().setGenerateKeys(generate);
+		props.getJwt().setAcceptHs256(acceptHs256);
+		props.getJwt().setSecret(SECRET);
+		return new JwtService(props, new SimpleMeterRegistry());
+	}
+
+	private static ECKey key(String kid) throws Exception {
+		return new ECKeyGenerator(Curve.P_256).keyID(kid).algorithm(JWSAlgorithm.ES256).generate();
+	}
+
+	// Token firmado directamente con una llave, como lo habría emitido una instancia anterior.
+	private static String sign(ECKey key) throws Exception {
+		JwtProperties props = new JwtProperties();
+		SignedJWT jwt = new SignedJWT(
+				new JWSHeader.Builder(JWSAlgorithm.ES256).keyID(key.getKeyID()).build(),
+				new JWTClaimsSet.Builder()
+						.subject("jwt-user")
+						.issuer(props.getJwt().getIssuer())
+						.expirationTime(new Date(System.currentTimeMillis() + 60_000))
+						.claim("roles", List.of("ROLE_USER"))
+						.build());
+		jwt.sign(new ECDSASigner(key));
+		return jwt.serialize();
+	}
+
+	private void write(String name, ECKey key, int minutes) throws Exception {
+		write(name, key.toJSONString(), minutes);
+	}
+
+	// minutes fija la fecha de modificación: la llave privada más reciente es la que firma.
+	private void write(String name, String json, int minutes) throws Exception {
+		Path file = keysDir.resolve(name + ".json");
+		Files.writeString(file, json);
+		Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2026-01-01T00:00:00Z").plusSeconds(60L * minutes)));
+	}
+
+	private List<Path> jsonFiles() throws Exception {
+		try (var files = Files.list(keysDir)) {
+			return files.filter(f -> f.toString().endsWith(".json")).toList();
+		}
+	}
+
+	private static String kid(String token) throws Exception {
+		return SignedJWT.parse(token).getHeader().getKeyID();
+	}
+
+	private static UserAccount user() {
+		UserAccount user = new UserAccount();
+		user.setUsername("jwt-user");
+		user.setRoles(Set.of(Role.ROLE_USER));
+		return user;
+	}
+}
@@ -0,0 +1,192 @@
+package cl.kibernum.apirest.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import cl.kibernum.apirest.security.domain.Role;
+import cl.kibernum.apirest.security.domain.UserAccount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtServiceTest {
+
+	private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+	private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final JwtService jwtService = new JwtService(properties(SECRET, "apirest"), clock, registry);
+
+	@Test
+	void validTokenCarriesItsClaims() {
+		UserAccount user = user();
+		user.incrementTokenVersion();
+
+		TokenValidation validation = jwtService.validate(jwtService.generateAccessToken(user));
+
+		assertThat(validation.isValid()).isTrue();
+		assertThat(validation.getPayload().getSubject()).isEqualTo("jwt-user");
+		assertThat(validation.getPayload().getVersion()).isEqualTo(1);
+		assertThat(validation.getPayload().getRoles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+		assertThat(validation.getPayload().getAuthorities()).extracting(Object::toString)
+				.containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+	}
+
+	@Test
+	void shapeCheckRejectsGarbageBeforeParsing() {
+		assertThat(JwtService.hasJwsShape(null)).isFalse();
+		assertThat(JwtService.hasJwsShape("abc.def.ghi")).isFalse();
+		assertThat(JwtService.hasJwsShape("aaaaaaaa.bbbbbbbb")).isFalse();
+		assertThat(JwtService.hasJwsShape("aaaaaaaa.bbbbbbbb.cccc.dddd")).isFalse();
+		assertThat(JwtService.hasJwsShape("aaaaaaaa..bbbbbbbbcccc")).isFalse();
+		assertThat(JwtService.hasJwsShape("aaaaaaaa.bbbbbbbb.cccc=")).isFalse();
+		assertThat(JwtService.hasJwsShape("aaaaaaaa.bbbb bbbb.cccc")).isFalse();
+		assertThat(JwtService.hasJwsShape("a".repeat(JwtService.MAX_TOKEN_LENGTH))).isFalse();
+		assertThat(JwtService.hasJwsShape("aaaaaaaa.bbbb-_bb.cccc")).isTrue();
+
+		assertThat(jwtService.validate("no es un token").getStatus()).isEqualTo(TokenValidation.Status.MALFORMED);
+		assertThat(registry.get("jwt.verify").tag("outcome", "malformed").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void tokenWithJwsShapeButInvalidContentIsMalformed() {
+		assertThat(jwtService.validate("aaaaaaaa.bbbbbbbb.cccccccc").getStatus())
+				.isEqualTo(TokenValidation.Status.MALFORMED);
+	}
+
+	@Test
+	void tokenSignedWithAnotherSecretIsRejected() {
+		JwtService other = new JwtService(properties("fedcba9876543210fedcba9876543210", "apirest"), clock,
+				new SimpleMeterRegistry());
+
+		assertThat(jwtService.validate(other.generateAccessToken(user())).getStatus())
+				.isEqualTo(TokenValidation.Status.INVALID_SIGNATURE);
+	}
+
+	@Test
+	void tokenFromAnotherIssuerIsRejected() {
+		JwtService other = new JwtService(properties(SECRET, "otro-emisor"), clock, new SimpleMeterRegistry());
+
+		assertThat(jwtService.validate(other.generateAccessToken(user())).getStatus())
+				.isEqualTo(TokenValidation.Status.INVALID_ISSUER);
+	}
+
+	@Test
+	void expiryAllowsThirtySecondsOfSkew() {
+		String token = jwtService.generateAccessToken(user());
+
+		clock.advance(Duration.ofMinutes(15).plusSeconds(29));
+		assertThat(jwtService.validate(token).isValid()).isTrue();
+
+		clock.advance(Duration.ofSeconds(2));
+		assertThat(jwtService.validate(token).getStatus()).isEqualTo(TokenValidation.Status.EXPIRED);
+	}
+
+	@Test
+	void verifiedTokensAreServedFromTheCacheUntilTheyExpire() {
+		String token = jwtService.generateAccessToken(user());
+
+		TokenValidation first = jwtService.validate(token);
+		TokenValidation second = jwtService.validate(token);
+
+		assertThat(second).isSameAs(first);
+		assertThat(registry.get("jwt.verify").tag("outcome", "valid").timer().count()).isEqualTo(1);
+		assertThat(registry.get("jwt.verify").tag("outcome", "cached").timer().count()).isEqualTo(1);
+
+		// Un acierto de caché no extiende la vida del token.
+		clock.advance(Duration.ofMinutes(16));
+		assertThat(jwtService.validate(token).getStatus()).isEqualTo(TokenValidation.Status.EXPIRED);
+	}
+
+	@Test
+	void startupFailsWithoutAUsableHs256Secret() {
+		for (String secret : new String[] { null, "", "0123456789abcdef0123456789abcde" }) {
+			assertThatThrownBy(() -> new JwtService(properties(secret, "apirest"), clock, new SimpleMeterRegistry()))
+					.isInstanceOf(IllegalStateException.class)
+					.hasMessage("JWT secret not configured properly");
+		}
+		JwtProperties unsupported = properties(SECRET, "apirest");
+		unsupported.getJwt().setAlgorithm("RS256");
+		assertThatThrownBy(() -> new JwtService(unsupported, clock, new SimpleMeterRegistry()))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void tokenWithoutIssuerIsRejected() throws Exception {
+		JWTClaimsSet claims = new JWTClaimsSet.Builder()
+				.subject("jwt-user")
+				.expirationTime(Date.from(clock.instant().plusSeconds(60)))
+				.build();
+
+		assertThat(jwtService.validate(sign(claims)).getStatus()).isEqualTo(TokenValidation.Status.INVALID_ISSUER);
+	}
+
+	@Test
+	void expiryIsEnforcedAtExpPlusTheDocumentedSkew() throws Exception {
+		Instant exp = clock.instant().plusSeconds(60);
+		String token = sign(new JWTClaimsSet.Builder().subject("jwt-user").issuer("apirest")
+				.expirationTime(Date.from(exp)).build());
+		String noExp = sign(new JWTClaimsSet.Builder().subject("jwt-user").issuer("apirest").build());
+
+		clock.advance(Duration.ofSeconds(60 + 30));
+		assertThat(jwtService.validate(token).isValid()).isTrue();
+		clock.advance(Duration.ofMillis(1));
+		assertThat(jwtService.validate(token).getStatus())
+				.isEqualTo(TokenValidation.Status.EXPIRED);
+		assertThat(jwtService.validate(noExp).getStatus()).isEqualTo(TokenValidation.Status.EXPIRED);
+	}
+
+	@Test
+	void tamperedTokensFailSignatureWithoutThrowing() throws Exception {
+		String token = jwtService.generateAccessToken(user());
+		String[] parts = token.split("\\.");
+		char first = parts[2].charAt(0);
+		String badSignature = parts[0] + "." + parts[1] + "." + (first == 'A' ? 'B' : 'A') + parts[2].substring(1);
+		// Payload cambiado (otro sujeto) con la firma original.
+		String forged = sign(new JWTClaimsSet.Builder().subject("otro").issuer("apirest")
+				.expirationTime(Date.from(clock.instant().plusSeconds(60))).build());
+		String swappedPayload = parts[0] + "." + forged.split("\\.")[1] + "." + parts[2];
+		// Header con otro algoritmo (HS512): no hay verificador habilitado para él.
+		String otherAlg = "eyJhbGciOiJIUzUxMiJ9." + parts[1] + "." + parts[2];
+
+		for (String tampered : new String[] { badSignature, swappedPayload, otherAlg }) {
+			assertThat(jwtService.validate(tampered).getStatus()).isEqualTo(TokenValidation.Status.INVALID_SIGNATURE);
+		}
+		// alg=none no es un JWS: se rechaza al parsear, también sin excepción.
+		assertThat(jwtService.validate("eyJhbGciOiJub25lIn0." + parts[1] + "." + parts[2]).getStatus())
+				.isEqualTo(TokenValidation.Status.MALFORMED);
+		assertThat(registry.get("jwt.verify").tag("outcome", "invalid").timer().count()).isEqualTo(4);
+	}
+
+	private static String sign(JWTClaimsSet claims) throws JOSEException {
+		SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+		jwt.sign(new MACSigner(SECRET));
+		return jwt.serialize();
+	}
+
+	private static UserAccount user() {
+		UserAccount user = new UserAccount();
+		user.setUsername("jwt-user");
+		user.setRoles(Set.of(Role.ROLE_USER, Role.ROLE_ADMIN));
+		return user;
+	}
+
+	private static JwtProperties properties(String secret, String issuer) {
+		JwtProperties props = new JwtProperties();
+		props.getJwt().setSecret(secret);
+		props.getJwt().setIssuer(issuer);
+		return props;
+	}
+}
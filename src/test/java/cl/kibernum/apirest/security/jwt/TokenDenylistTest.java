@@ -0,0 +1,150 @@
+package cl.kibernum.apirest.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TokenDenylistTest {
+
+	private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+	@TempDir
+	Path tempDir;
+
+	private final MutableClock clock = new MutableClock(START);
+
+	@Test
+	void revokedJtiIsFoundAndOthersAreNot() {
+		TokenDenylist denylist = new TokenDenylist(properties(true, null), clock);
+		String uuid = UUID.randomUUID().toString();
+		denylist.revoke(uuid, expiresIn(Duration.ofMinutes(5)));
+		denylist.revoke("jti-que-no-es-uuid", expiresIn(Duration.ofMinutes(5)));
+
+		assertThat(denylist.isRevoked(uuid)).isTrue();
+		assertThat(denylist.isRevoked(uuid.toUpperCase())).isTrue();
+		assertThat(denylist.isRevoked("jti-que-no-es-uuid")).isTrue();
+		assertThat(denylist.isRevoked(UUID.randomUUID().toString())).isFalse();
+		assertThat(denylist.isRevoked(null)).isFalse();
+		assertThat(denylist.size()).isEqualTo(2);
+	}
+
+	@Test
+	void revokingTwiceKeepsOneEntry() {
+		TokenDenylist denylist = new TokenDenylist(properties(true, null), clock);
+		String jti = UUID.randomUUID().toString();
+		denylist.revoke(jti, expiresIn(Duration.ofMinutes(5)));
+		denylist.revoke(jti, expiresIn(Duration.ofMinutes(10)));
+
+		assertThat(denylist.size()).isEqualTo(1);
+	}
+
+	@Test
+	void alreadyExpiredTokensAreNotStored() {
+		TokenDenylist denylist = new TokenDenylist(properties(true, null), clock);
+		denylist.revoke(UUID.randomUUID().toString(), clock.millis());
+
+		assertThat(denylist.size()).isZero();
+	}
+
+	@Test
+	void disabledDenylistNeverRevokes() {
+		TokenDenylist denylist = new TokenDenylist(properties(false, null), clock);
+		String jti = UUID.randomUUID().toString();
+		denylist.revoke(jti, expiresIn(Duration.ofMinutes(5)));
+
+		assertThat(denylist.isRevoked(jti)).isFalse();
+		assertThat(denylist.size()).isZero();
+	}
+
+	@Test
+	void purgeRemovesOnlyExpiredEntries() {
+		TokenDenylist denylist = new TokenDenylist(properties(true, null), clock);
+		String shortLived = UUID.randomUUID().toString();
+		String longLived = UUID.randomUUID().toString();
+		denylist.revoke(shortLived, expiresIn(Duration.ofMinutes(1)));
+		denylist.revoke(longLived, expiresIn(Duration.ofHours(1)));
+
+		clock.advance(Duration.ofMinutes(2));
+
+		assertThat(denylist.purgeExpired()).isEqualTo(1);
+		assertThat(denylist.size()).isEqualTo(1);
+		assertThat(denylist.isRevoked(shortLived)).isFalse();
+		assertThat(denylist.isRevoked(longLived)).isTrue();
+	}
+
+	@Test
+	void sizeAccountsForEntriesPurgedWhileGrowing() {
+		TokenDenylist denylist = new TokenDenylist(properties(true, null), clock);
+		for (int i = 0; i < 2_000; i++) {
+			denylist.revoke(UUID.randomUUID().toString(), expiresIn(Duration.ofMinutes(1)));
+		}
+		clock.advance(Duration.ofMinutes(2));
+		// Estas inserciones hacen crecer las tablas y purgan las entradas expiradas en el camino.
+		String[] live = new String[2_000];
+		for (int i = 0; i < live.length; i++) {
+			live[i] = UUID.randomUUID().toString();
+			denylist.revoke(live[i], expiresIn(Duration.ofHours(1)));
+		}
+
+		denylist.purgeExpired();
+		assertThat(denylist.size()).isEqualTo(live.length);
+		for (String jti : live) {
+			assertThat(denylist.isRevoked(jti)).isTrue();
+		}
+
+		clock.advance(Duration.ofHours(2));
+		denylist.purgeExpired();
+		assertThat(denylist.size()).isZero();
+		assertThat(denylist.isRevoked(live[0])).isFalse();
+	}
+
+	@Test
+	void snapshotRoundTripSkipsExpiredEntries() throws Exception {
+		Path file = tempDir.resolve("denylist.bin");
+		TokenDenylist denylist = new TokenDenylist(properties(true, file), clock);
+		String shortLived = UUID.randomUUID().toString();
+		String longLived = UUID.randomUUID().toString();
+		denylist.revoke(shortLived, expiresIn(Duration.ofMinutes(1)));
+		denylist.revoke(longLived, expiresIn(Duration.ofHours(1)));
+		denylist.revoke("jti-libre", expiresIn(Duration.ofHours(1)));
+		denylist.snapshot();
+		assertThat(Files.exists(file)).isTrue();
+
+		clock.advance(Duration.ofMinutes(5));
+		TokenDenylist restored = new TokenDenylist(properties(true, file), clock);
+		restored.restore();
+
+		assertThat(restored.size()).isEqualTo(2);
+		assertThat(restored.isRevoked(longLived)).isTrue();
+		assertThat(restored.isRevoked("jti-libre")).isTrue();
+		assertThat(restored.isRevoked(shortLived)).isFalse();
+	}
+
+	@Test
+	void unknownFileFormatIsIgnored() throws Exception {
+		Path file = tempDir.resolve("denylist.bin");
+		Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		TokenDenylist denylist = new TokenDenylist(properties(true, file), clock);
+		denylist.restore();
+
+		assertThat(denylist.size()).isZero();
+	}
+
+	private long expiresIn(Duration duration) {
+		return clock.millis() + duration.toMillis();
+	}
+
+	private static JwtProperties properties(boolean enabled, Path file) {
+		JwtProperties props = new JwtProperties();
+		props.getJwt().setDenylistEnabled(enabled);
+		props.getJwt().setDenylistFile(file == null ? null : file.toString());
+		return props;
+	}
+}
@@ -0,0 +1,116 @@
+package cl.kibernum.apirest.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import cl.kibernum.apirest.security.domain.Role;
+import cl.kibernum.apirest.security.domain.UserAccount;
+import cl.kibernum.apirest.security.filter.JwtAuthenticationFilter;
+import cl.kibernum.apirest.security.services.TokenVersionIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VerifiedTokenCacheTest {
+
+	private static final long NOW = 1_000_000L;
+
+	@Test
+	void hitReturnsTheSharedValidation() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(16);
+		TokenValidation validation = valid(NOW + 60_000);
+
+		cache.put("token-a", validation);
+
+		assertThat(cache.get("token-a", NOW)).isSameAs(validation);
+		assertThat(cache.get("token-a", NOW)).isSameAs(validation);
+		assertThat(cache.get("token-b", NOW)).isNull();
+	}
+
+	@Test
+	void entryStopsBeingServedAtExp() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(16);
+		cache.put("token-a", valid(NOW + 60_000));
+
+		assertThat(cache.get("token-a", NOW + 59_999)).isNotNull();
+		assertThat(cache.get("token-a", NOW + 60_000)).isNull();
+	}
+
+	@Test
+	void sizeIsBoundedByTheTable() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(8);
+		for (int i = 0; i < 1000; i++) {
+			cache.put("token-" + i, valid(NOW + 60_000));
+		}
+
+		int hits = 0;
+		for (int i = 0; i < 1000; i++) {
+			if (cache.get("token-" + i, NOW) != null) {
+				hits++;
+			}
+		}
+		// Tabla de 8 posiciones con mapeo directo: nunca más de 8 entradas vivas.
+		assertThat(hits).isBetween(1, 8);
+	}
+
+	@Test
+	void disabledCacheAndInvalidResultsAreNotStored() {
+		VerifiedTokenCache disabled = new VerifiedTokenCache(0);
+		disabled.put("token-a", valid(NOW + 60_000));
+		assertThat(disabled.get("token-a", NOW)).isNull();
+
+		VerifiedTokenCache cache = new VerifiedTokenCache(16);
+		cache.put("token-b", TokenValidation.EXPIRED);
+		assertThat(cache.get("token-b", NOW)).isNull();
+
+		cache.put("token-c", valid(NOW + 60_000));
+		cache.clear();
+		assertThat(cache.get("token-c", NOW)).isNull();
+	}
+
+	@Test
+	void denylistedTokenIsNotServedFromTheCache() throws Exception {
+		JwtProperties props = new JwtProperties();
+		props.getJwt().setSecret("0123456789abcdef0123456789abcdef");
+		props.getJwt().setDenylistEnabled(true);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		JwtService jwtService = new JwtService(props, registry);
+		TokenDenylist denylist = new TokenDenylist(props);
+		TokenVersionIndex tokenVersions = mock(TokenVersionIndex.class);
+		when(tokenVersions.isCurrent("cache", 0)).thenReturn(true);
+		JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, denylist, tokenVersions, registry);
+
+		UserAccount user = new UserAccount();
+		user.setUsername("cache");
+		user.setRoles(Set.of(Role.ROLE_USER));
+		String token = jwtService.generateAccessToken(user);
+		JwtService.JwtPayload payload = jwtService.validate(token).getPayload();
+		denylist.revoke(payload.getJti(), payload.getExpiresAt().getTime());
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/productos");
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, response, chain);
+
+		// El token salió del caché, pero la denylist se consulta igual en cada request.
+		assertThat(registry.get("jwt.verify").tag("outcome", "cached").timer().count()).isEqualTo(1);
+		assertThat(response.getStatus()).isEqualTo(401);
+		assertThat(chain.getRequest()).isNull();
+	}
+
+	private static TokenValidation valid(long expiresAtMillis) {
+		return TokenValidation.valid(new JwtService.JwtPayload("ana", List.of("ROLE_USER"), List.of(), 0, "jti",
+				Date.from(Instant.ofEpochMilli(expiresAtMillis))));
+	}
+}
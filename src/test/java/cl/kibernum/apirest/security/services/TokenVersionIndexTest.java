@@ -0,0 +1,80 @@
+package cl.kibernum.apirest.security.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import cl.kibernum.apirest.security.jwt.JwtProperties;
+import cl.kibernum.apirest.security.repository.UserAccountRepository;
+
+class TokenVersionIndexTest {
+
+	private final UserAccountRepository repository = mock(UserAccountRepository.class);
+
+	@Test
+	void cachesTheCurrentVersion() {
+		when(repository.findEffectiveTokenVersion("ana")).thenReturn(Optional.of(3));
+		TokenVersionIndex index = new TokenVersionIndex(repository, properties(100, Duration.ofMinutes(5)));
+
+		assertThat(index.isCurrent("ana", 3)).isTrue();
+		assertThat(index.isCurrent("ana", 2)).isFalse();
+		verify(repository, times(1)).findEffectiveTokenVersion("ana");
+	}
+
+	@Test
+	void unknownOrInactiveUsersAreRevoked() {
+		when(repository.findEffectiveTokenVersion("nadie")).thenReturn(Optional.empty());
+		when(repository.findEffectiveTokenVersion("inactivo")).thenReturn(Optional.of(TokenVersionIndex.REVOKED));
+		TokenVersionIndex index = new TokenVersionIndex(repository, properties(100, Duration.ofMinutes(5)));
+
+		assertThat(index.isCurrent("nadie", 0)).isFalse();
+		assertThat(index.isCurrent("inactivo", TokenVersionIndex.REVOKED)).isFalse();
+		assertThat(index.isCurrent(null, 0)).isFalse();
+	}
+
+	@Test
+	void invalidationReloadsAUserCachedAsMissing() {
+		when(repository.findEffectiveTokenVersion("nuevo")).thenReturn(Optional.empty(), Optional.of(0));
+		TokenVersionIndex index = new TokenVersionIndex(repository, properties(100, Duration.ofMinutes(5)));
+
+		assertThat(index.isCurrent("nuevo", 0)).isFalse();
+		index.invalidate("nuevo");
+		assertThat(index.isCurrent("nuevo", 0)).isTrue();
+	}
+
+	@Test
+	void expiredEntriesAreReloaded() {
+		when(repository.findEffectiveTokenVersion("ana")).thenReturn(Optional.of(1), Optional.of(2));
+		TokenVersionIndex index = new TokenVersionIndex(repository, properties(100, Duration.ZERO));
+
+		assertThat(index.isCurrent("ana", 1)).isTrue();
+		assertThat(index.isCurrent("ana", 2)).isTrue();
+		verify(repository, times(2)).findEffectiveTokenVersion("ana");
+	}
+
+	@Test
+	void sizeIsBounded() {
+		when(repository.findEffectiveTokenVersion(org.mockito.ArgumentMatchers.anyString())).thenReturn(Optional.of(0));
+		TokenVersionIndex index = new TokenVersionIndex(repository, properties(8, Duration.ofMinutes(5)));
+
+		for (int i = 0; i < 1_000; i++) {
+			index.isCurrent("user" + i, 0);
+		}
+
+		assertThat(index.size()).isLessThanOrEqualTo(8);
+	}
+
+	private static JwtProperties properties(int size, Duration ttl) {
+		JwtProperties props = new JwtProperties();
+		props.getJwt().setVersionCacheSize(size);
+		props.getJwt().setVersionCacheTtl(ttl);
+		return props;
+	}
+}
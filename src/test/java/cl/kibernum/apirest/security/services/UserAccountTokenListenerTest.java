@@ -0,0 +1,58 @@
+package cl.kibernum.apirest.security.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import cl.kibernum.apirest.security.domain.Role;
+import cl.kibernum.apirest.security.domain.UserAccount;
+import cl.kibernum.apirest.security.repository.UserAccountRepository;
+
+@SpringBootTest
+class UserAccountTokenListenerTest {
+
+	@Autowired
+	private TokenVersionIndex tokenVersions;
+
+	@Autowired
+	private UserAccountRepository userRepo;
+
+	@Test
+	void userCreatedAfterAMissedLookupIsAccepted() {
+		assertThat(tokenVersions.isCurrent("recien-creado", 0)).isFalse();
+
+		userRepo.save(user("recien-creado"));
+
+		assertThat(tokenVersions.isCurrent("recien-creado", 0)).isTrue();
+	}
+
+	@Test
+	void versionBumpAndDeactivationRevokeOldTokens() {
+		UserAccount user = userRepo.save(user("rotador"));
+		assertThat(tokenVersions.isCurrent("rotador", 0)).isTrue();
+
+		user.incrementTokenVersion();
+		user = userRepo.save(user);
+		assertThat(tokenVersions.isCurrent("rotador", 0)).isFalse();
+		assertThat(tokenVersions.isCurrent("rotador", 1)).isTrue();
+
+		user.desactivateUser();
+		userRepo.save(user);
+		assertThat(tokenVersions.isCurrent("rotador", 1)).isFalse();
+	}
+
+	private static UserAccount user(String username) {
+		UserAccount user = new UserAccount();
+		user.setUsername(username);
+		user.setNombre("n");
+		user.setApellido("a");
+		user.setEmail(username + "@test.cl");
+		user.setPassword("{noop}x");
+		user.setRoles(Set.of(Role.ROLE_USER));
+		return user;
+	}
+}
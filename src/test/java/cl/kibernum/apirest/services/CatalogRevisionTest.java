@@ -0,0 +1,80 @@
+package cl.kibernum.apirest.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.kibernum.apirest.dto.ChangesPage;
+import cl.kibernum.apirest.dto.ProductoDto;
+import cl.kibernum.apirest.dto.ProductoView;
+
+@SpringBootTest
+class CatalogRevisionTest {
+
+	@Autowired
+	private ProductoServiceImpl productoService;
+
+	@Autowired
+	private CatalogRevision catalogRevision;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void watermarkStaysBelowAnUncommittedRevision() throws Exception {
+		int lenta = productoService.create(new ProductoDto("revision-lenta", "d", 1, 10)).getId();
+		int rapida = productoService.create(new ProductoDto("revision-rapida", "d", 1, 10)).getId();
+		long since = catalogRevision.watermark();
+
+		CountDownLatch assigned = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// La transacción lenta toma su revisión primero y no confirma hasta que el test lo indique.
+			Future<?> slow = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+				productoService.adjustStock(lenta, 1);
+				assigned.countDown();
+				await(release);
+			}));
+			assertThat(assigned.await(10, TimeUnit.SECONDS)).isTrue();
+			long slowRevision = catalogRevision.watermark() + 1;
+
+			// La transacción posterior confirma antes, con una revisión mayor.
+			productoService.adjustStock(rapida, 1);
+
+			assertThat(catalogRevision.watermark()).isEqualTo(slowRevision - 1);
+			ChangesPage<ProductoView> page = productoService.findChanges(since, 100);
+			assertThat(page.getRevision()).isLessThan(slowRevision);
+			assertThat(page.getItems()).extracting(ProductoView::getId).doesNotContain(lenta, rapida);
+
+			release.countDown();
+			slow.get(10, TimeUnit.SECONDS);
+
+			// Con el since devuelto no se pierde ninguno de los dos cambios.
+			ChangesPage<ProductoView> next = productoService.findChanges(page.getRevision(), 100);
+			assertThat(next.getItems()).extracting(ProductoView::getId).contains(lenta, rapida);
+			assertThat(next.getRevision()).isGreaterThan(slowRevision);
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
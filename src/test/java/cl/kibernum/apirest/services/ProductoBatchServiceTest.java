@@ -0,0 +1,89 @@
+package cl.kibernum.apirest.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import cl.kibernum.apirest.dto.BatchItemResult;
+import cl.kibernum.apirest.dto.BatchResult;
+import cl.kibernum.apirest.dto.ProductoDto;
+import cl.kibernum.apirest.exception.InvalidRequestException;
+import cl.kibernum.apirest.repositories.ProductoRepository;
+
+@SpringBootTest(properties = { "catalog.batch.chunk-size=2", "catalog.batch.max-items=10" })
+class ProductoBatchServiceTest {
+
+	@Autowired
+	private ProductoBatchService batchService;
+
+	@MockitoSpyBean
+	private ProductoRepository productoRepository;
+
+	@Test
+	void invalidItemsFailAloneAndTheRestOfTheirChunkIsSaved() {
+		BatchResult result = batchService.upsertAll(List.of(
+				new ProductoDto("lote-valido-1", "d", 1, 10),
+				new ProductoDto("", "d", 1, 10),
+				new ProductoDto("lote-valido-2", "d", 1, 10)));
+
+		assertThat(statuses(result)).containsExactly(BatchItemResult.Status.CREATED, BatchItemResult.Status.ERROR,
+				BatchItemResult.Status.CREATED);
+		assertThat(result.getItems().get(1).getError()).contains("nombre");
+		assertThat(productoRepository.findByNombre("lote-valido-1")).isPresent();
+		assertThat(productoRepository.findByNombre("lote-valido-2")).isPresent();
+	}
+
+	@Test
+	void rejectedChunkDoesNotRollBackTheOthers() {
+		doThrow(new DataIntegrityViolationException("duplicado"))
+				.when(productoRepository).findByNombreIn(argThat(nombres -> nombres.contains("lote-rechazado")));
+
+		BatchResult result = batchService.upsertAll(List.of(
+				new ProductoDto("lote-primero", "d", 1, 10),
+				new ProductoDto("lote-segundo", "d", 1, 10),
+				new ProductoDto("lote-rechazado", "d", 1, 10),
+				new ProductoDto("lote-companero", "d", 1, 10),
+				new ProductoDto("lote-ultimo", "d", 1, 10)));
+
+		assertThat(statuses(result)).containsExactly(BatchItemResult.Status.CREATED, BatchItemResult.Status.CREATED,
+				BatchItemResult.Status.ERROR, BatchItemResult.Status.ERROR, BatchItemResult.Status.CREATED);
+		assertThat(result.getItems().get(2).getError()).startsWith("Bloque rechazado por la base de datos");
+		assertThat(result.getItems().get(3).getIndex()).isEqualTo(3);
+		assertThat(productoRepository.findByNombre("lote-primero")).isPresent();
+		assertThat(productoRepository.findByNombre("lote-rechazado")).isEmpty();
+		assertThat(productoRepository.findByNombre("lote-companero")).isEmpty();
+		assertThat(productoRepository.findByNombre("lote-ultimo")).isPresent();
+	}
+
+	@Test
+	void repeatedNameInAChunkUpdatesTheSameProduct() {
+		BatchResult result = batchService.upsertAll(List.of(
+				new ProductoDto("lote-repetido", "primera", 1, 10),
+				new ProductoDto("lote-repetido", "segunda", 7, 10)));
+
+		assertThat(statuses(result)).containsExactly(BatchItemResult.Status.CREATED, BatchItemResult.Status.UPDATED);
+		assertThat(result.getItems().get(0).getId()).isEqualTo(result.getItems().get(1).getId());
+		assertThat(productoRepository.findByNombre("lote-repetido").orElseThrow().getStock()).isEqualTo(7);
+	}
+
+	@Test
+	void rejectsBatchesOverTheLimit() {
+		List<ProductoDto> productos = java.util.stream.IntStream.range(0, 11)
+				.mapToObj(i -> new ProductoDto("lote-limite-" + i, "d", 1, 10)).toList();
+
+		org.assertj.core.api.Assertions.assertThatThrownBy(() -> batchService.upsertAll(productos))
+				.isInstanceOf(InvalidRequestException.class);
+	}
+
+	private static List<BatchItemResult.Status> statuses(BatchResult result) {
+		return result.getItems().stream().map(BatchItemResult::getStatus).toList();
+	}
+}
@@ -0,0 +1,125 @@
+package cl.kibernum.apirest.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import cl.kibernum.apirest.config.CatalogProperties;
+import cl.kibernum.apirest.entities.Producto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProductoCacheTest {
+
+	private final AtomicInteger loads = new AtomicInteger();
+	private final IntFunction<Optional<Producto>> loader = id -> {
+		loads.incrementAndGet();
+		return id < 0 ? Optional.empty() : Optional.of(producto(id));
+	};
+
+	@Test
+	void secondReadIsServedFromTheCache() {
+		ProductoCache cache = cache(true, 100, Duration.ofMinutes(5));
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		cache.bindTo(registry);
+
+		Producto first = cache.get(1, loader).orElseThrow();
+		Producto second = cache.get(1, loader).orElseThrow();
+
+		assertThat(second).isSameAs(first);
+		assertThat(loads).hasValue(1);
+		assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+		assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+		assertThat(registry.get("cache.size").gauge().value()).isEqualTo(1);
+	}
+
+	@Test
+	void missingProductsAreNotCached() {
+		ProductoCache cache = cache(true, 100, Duration.ofMinutes(5));
+
+		assertThat(cache.get(-1, loader)).isEmpty();
+		assertThat(cache.get(-1, loader)).isEmpty();
+
+		assertThat(loads).hasValue(2);
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void invalidationForcesAReload() {
+		ProductoCache cache = cache(true, 100, Duration.ofMinutes(5));
+		cache.get(1, loader);
+
+		cache.invalidateAfterCommit(1);
+		cache.get(1, loader);
+
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void loadRacingWithAnInvalidationIsNotStored() {
+		ProductoCache cache = cache(true, 100, Duration.ofMinutes(5));
+
+		// La escritura invalida mientras la lectura todavía está cargando la fila vieja.
+		Optional<Producto> loaded = cache.get(1, id -> {
+			cache.invalidate(id);
+			return Optional.of(producto(id));
+		});
+
+		assertThat(loaded).isPresent();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void expiredEntriesAreReloaded() {
+		ProductoCache cache = cache(true, 100, Duration.ZERO);
+
+		cache.get(1, loader);
+		cache.get(1, loader);
+
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void sizeStaysBounded() {
+		ProductoCache cache = cache(true, 8, Duration.ofMinutes(5));
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		cache.bindTo(registry);
+
+		for (int id = 0; id < 100; id++) {
+			cache.get(id, loader);
+		}
+
+		assertThat(cache.size()).isEqualTo(8);
+		assertThat(registry.get("cache.evictions").functionCounter().count()).isEqualTo(92);
+	}
+
+	@Test
+	void disabledCacheAlwaysLoads() {
+		ProductoCache cache = cache(false, 100, Duration.ofMinutes(5));
+
+		cache.get(1, loader);
+		cache.get(1, loader);
+
+		assertThat(loads).hasValue(2);
+		assertThat(cache.size()).isZero();
+	}
+
+	private static ProductoCache cache(boolean enabled, int maxSize, Duration ttl) {
+		CatalogProperties props = new CatalogProperties();
+		props.getCache().setEnabled(enabled);
+		props.getCache().setMaxSize(maxSize);
+		props.getCache().setTtl(ttl);
+		return new ProductoCache(props);
+	}
+
+	private static Producto producto(int id) {
+		Producto producto = new Producto("cache-" + id, "d", 1, 10);
+		ReflectionTestUtils.setField(producto, "id", id);
+		return producto;
+	}
+}
@@ -0,0 +1,54 @@
+package cl.kibernum.apirest.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import cl.kibernum.apirest.exception.InvalidRequestException;
+
+class ProductoCursorTest {
+
+	@Test
+	void encodeDecodeRoundTrip() {
+		for (int id : new int[] { 0, 1, 50, 123456, Integer.MAX_VALUE - 1 }) {
+			assertThat(ProductoCursor.decode(ProductoCursor.encode(id))).isEqualTo(id);
+		}
+	}
+
+	@Test
+	void cursorIsUrlSafeWithoutPadding() {
+		assertThat(ProductoCursor.encode(100)).matches("[A-Za-z0-9_-]+");
+	}
+
+	@Test
+	void missingCursorStartsFromTheBeginning() {
+		assertThat(ProductoCursor.decode(null)).isZero();
+		assertThat(ProductoCursor.decode("")).isZero();
+	}
+
+	@Test
+	void rejectsInvalidCursors() {
+		String wrongPrefix = raw("x:10");
+		String notANumber = raw("p:abc");
+		for (String cursor : new String[] { "%%%", "no es base64!", wrongPrefix, notANumber, raw("p:-5"),
+				raw("p:" + Integer.MAX_VALUE), raw("p:99999999999"), raw("p:+5"), raw("p:007") }) {
+			assertThatThrownBy(() -> ProductoCursor.decode(cursor))
+					.isInstanceOf(InvalidRequestException.class)
+					.hasMessage("Cursor inválido");
+		}
+	}
+
+	@Test
+	void encodeRejectsIdsThatDecodeWouldRefuse() {
+		assertThatThrownBy(() -> ProductoCursor.encode(-1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ProductoCursor.encode(Integer.MAX_VALUE)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static String raw(String cursor) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.US_ASCII));
+	}
+}
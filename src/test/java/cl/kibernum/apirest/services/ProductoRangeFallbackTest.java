@@ -0,0 +1,82 @@
+package cl.kibernum.apirest.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.reset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import cl.kibernum.apirest.dto.CursorPage;
+import cl.kibernum.apirest.dto.ProductoDto;
+import cl.kibernum.apirest.dto.ProductoFilter;
+import cl.kibernum.apirest.dto.ProductoView;
+
+@SpringBootTest
+class ProductoRangeFallbackTest {
+
+	@Autowired
+	private ProductoServiceImpl productoService;
+
+	@MockitoSpyBean
+	private ProductoRangeIndex rangeIndex;
+
+	private static final List<Integer> created = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		if (!created.isEmpty()) {
+			return;
+		}
+		created.add(productoService.create(new ProductoDto("rango-barato", "d", 1, 7001.0)).getId());
+		created.add(productoService.create(new ProductoDto("rango-medio", "d", 5, 7002.0)).getId());
+		created.add(productoService.create(new ProductoDto("rango-caro", "d", 9, 7003.0)).getId());
+		productoService.softDelete(created.get(1));
+	}
+
+	@Test
+	void fallbackAndIndexReturnTheSamePages() {
+		ProductoFilter precio = new ProductoFilter(7001.0, 7002.0, null);
+		ProductoFilter stock = new ProductoFilter(7001.0, 7003.0, 5);
+
+		List<Integer> indexAll = ids(precio, false);
+		List<Integer> indexActive = ids(stock, true);
+
+		doReturn(false).when(rangeIndex).isReady();
+		try {
+			assertThat(ids(precio, false)).isEqualTo(indexAll).containsExactly(created.get(0), created.get(1));
+			assertThat(ids(stock, true)).isEqualTo(indexActive).containsExactly(created.get(2));
+			assertThat(ids(new ProductoFilter(7003.0, 7003.0, 10), false)).isEmpty();
+		} finally {
+			reset(rangeIndex);
+		}
+	}
+
+	@Test
+	void fallbackPagesWithTheCursor() {
+		doReturn(false).when(rangeIndex).isReady();
+		try {
+			ProductoFilter filter = new ProductoFilter(7001.0, 7003.0, null);
+			CursorPage<ProductoView> first = productoService.findPage(null, 2, filter);
+			assertThat(first.getItems()).extracting(ProductoView::getId).containsExactly(created.get(0), created.get(1));
+			CursorPage<ProductoView> second = productoService.findPage(first.getNextCursor(), 2, filter);
+			assertThat(second.getItems()).extracting(ProductoView::getId).containsExactly(created.get(2));
+			assertThat(second.getNextCursor()).isNull();
+		} finally {
+			reset(rangeIndex);
+		}
+	}
+
+	private List<Integer> ids(ProductoFilter filter, boolean activeOnly) {
+		CursorPage<ProductoView> page = activeOnly
+				? productoService.findActivePage(null, 100, filter)
+				: productoService.findPage(null, 100, filter);
+		return page.getItems().stream().map(ProductoView::getId).toList();
+	}
+}
@@ -0,0 +1,104 @@
+package cl.kibernum.apirest.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import cl.kibernum.apirest.entities.Producto;
+import cl.kibernum.apirest.repositories.ProductoRepository;
+
+class ProductoRangeIndexTest {
+
+	private static final double SIN_MIN = -Double.MAX_VALUE;
+	private static final double SIN_MAX = Double.MAX_VALUE;
+	private static final int SIN_STOCK = Integer.MIN_VALUE;
+
+	private ProductoRepository repo;
+	private ProductoRangeIndex index;
+
+	@BeforeEach
+	void setUp() {
+		repo = mock(ProductoRepository.class);
+		index = new ProductoRangeIndex(mock(ProductoServiceImpl.class), repo);
+		put(1, 10.0, 0, true, 0);
+		put(2, 20.0, 5, true, 0);
+		put(3, 20.0, 10, false, 0);
+		put(4, 30.5, 10, true, 0);
+	}
+
+	@Test
+	void priceBoundsAreInclusive() {
+		assertThat(ids(index.filter(10.0, 20.0, SIN_STOCK, false))).containsExactly(1, 2, 3);
+		assertThat(ids(index.filter(20.0, 20.0, SIN_STOCK, false))).containsExactly(2, 3);
+		assertThat(ids(index.filter(20.0, 30.5, SIN_STOCK, false))).containsExactly(2, 3, 4);
+		assertThat(ids(index.filter(Math.nextUp(20.0), 30.4, SIN_STOCK, false))).isEmpty();
+		assertThat(ids(index.filter(SIN_MIN, 9.99, SIN_STOCK, false))).isEmpty();
+	}
+
+	@Test
+	void stockBoundIsInclusiveAndCombinesWithPrice() {
+		assertThat(ids(index.filter(SIN_MIN, SIN_MAX, 10, false))).containsExactly(3, 4);
+		assertThat(ids(index.filter(SIN_MIN, SIN_MAX, 0, false))).containsExactly(1, 2, 3, 4);
+		assertThat(ids(index.filter(SIN_MIN, SIN_MAX, 11, false))).isEmpty();
+		assertThat(ids(index.filter(20.0, 20.0, 10, false))).containsExactly(3);
+	}
+
+	@Test
+	void activeOnlyDropsInactiveProducts() {
+		assertThat(ids(index.filter(SIN_MIN, SIN_MAX, SIN_STOCK, true))).containsExactly(1, 2, 4);
+		assertThat(ids(index.filter(20.0, 20.0, SIN_STOCK, true))).containsExactly(2);
+	}
+
+	@Test
+	void updatesMoveEntries() {
+		put(1, 25.0, 7, true, 1);
+
+		assertThat(ids(index.filter(10.0, 10.0, SIN_STOCK, false))).isEmpty();
+		assertThat(ids(index.filter(25.0, 25.0, 7, false))).containsExactly(1);
+	}
+
+	@Test
+	void refreshedStockIsAbsoluteAndOlderVersionsAreIgnored() {
+		// Dos ajustes de stock sobre el producto 2: el de versión 2 confirma último en la base
+		// pero su callback se ejecuta antes que el de versión 1.
+		when(repo.findStockAndVersionById(2)).thenReturn(List.<Object[]>of(new Object[] { 3, 2L }));
+		index.refreshStockAfterCommit(2);
+		when(repo.findStockAndVersionById(2)).thenReturn(List.<Object[]>of(new Object[] { 4, 1L }));
+		index.refreshStockAfterCommit(2);
+
+		assertThat(ids(index.filter(SIN_MIN, SIN_MAX, 4, false))).doesNotContain(2);
+		assertThat(ids(index.filter(SIN_MIN, SIN_MAX, 3, false))).contains(2);
+
+		// Un cambio de entidad con versión vieja tampoco pisa el valor.
+		put(2, 99.0, 50, true, 1);
+		assertThat(ids(index.filter(99.0, 99.0, SIN_STOCK, false))).isEmpty();
+	}
+
+	@Test
+	void refreshOfMissingRowIsIgnored() {
+		when(repo.findStockAndVersionById(9)).thenReturn(List.of());
+
+		index.refreshStockAfterCommit(9);
+
+		assertThat(ids(index.filter(SIN_MIN, SIN_MAX, SIN_STOCK, false))).containsExactly(1, 2, 3, 4);
+	}
+
+	private void put(int id, double precio, int stock, boolean active, long version) {
+		Producto producto = new Producto("p" + id, "d", stock, precio);
+		ReflectionTestUtils.setField(producto, "id", id);
+		ReflectionTestUtils.setField(producto, "active", active);
+		ReflectionTestUtils.setField(producto, "version", version);
+		index.indexAfterCommit(producto);
+	}
+
+	private static List<Integer> ids(BitSet bits) {
+		return bits.stream().boxed().toList();
+	}
+}
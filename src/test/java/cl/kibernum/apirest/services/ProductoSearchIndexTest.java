@@ -0,0 +1,123 @@
+package cl.kibernum.apirest.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import cl.kibernum.apirest.entities.Producto;
+
+class ProductoSearchIndexTest {
+
+	private final ProductoSearchIndex index = new ProductoSearchIndex(mock(ProductoServiceImpl.class));
+
+	@Test
+	void tokenizeFoldsAccentsAndCase() {
+		assertThat(ProductoSearchIndex.tokenize("Pañal ECONÓMICO, talla-XL 2x"))
+				.containsExactly("panal", "economico", "talla", "xl", "2x");
+	}
+
+	@Test
+	void tokenizeDropsStopwordsShortWordsAndRepeats() {
+		assertThat(ProductoSearchIndex.tokenize("Leche de la vaca y leche sin lactosa a"))
+				.containsExactly("leche", "vaca", "lactosa");
+		assertThat(ProductoSearchIndex.tokenize("  ")).isEmpty();
+		assertThat(ProductoSearchIndex.tokenize(null)).isEmpty();
+	}
+
+	@Test
+	void everyWordMustMatch() {
+		index(1, "Leche entera", "caja de un litro");
+		index(2, "Leche descremada", "botella");
+		index(3, "Jugo de naranja", "caja");
+
+		assertThat(index.search("leche caja", 10).ids()).containsExactly(1);
+		assertThat(index.search("LÉCHE", 10).total()).isEqualTo(2);
+		assertThat(index.search("leche cafe", 10).ids()).isEmpty();
+		// Solo conectores: no hay nada que buscar.
+		assertThat(index.search("de la", 10).ids()).isEmpty();
+	}
+
+	@Test
+	void nombreMatchesRankAboveDescripcionMatches() {
+		index(1, "Galletas", "con chocolate");
+		index(2, "Chocolate amargo", "tableta");
+		index(3, "Chocolate blanco", "tableta chocolate");
+		index(4, "Pan", "integral");
+
+		assertThat(index.search("chocolate", 10).ids()).containsExactly(3, 2, 1);
+		assertThat(index.search("chocolate", 2).ids()).containsExactly(3, 2);
+		assertThat(index.search("chocolate", 2).total()).isEqualTo(3);
+	}
+
+	@Test
+	void lastWordIsAlsoAPrefix() {
+		index(1, "Pan", "con chorizo");
+		index(2, "Chocolate amargo", "tableta");
+		index(3, "Choclo", "congelado chocolate");
+		index(4, "Chorizo", "parrillero");
+		index(5, "Chocolatada", "caja");
+
+		// Unión de chocolate, chocolatada, choclo y chorizo sin repetidos: el producto 3 conserva el mayor
+		// peso de sus dos términos (nombre) en vez de sumarlos, y el 1 solo coincide por descripcion.
+		assertThat(index.search("cho", 10).ids()).containsExactly(2, 3, 4, 5, 1);
+		assertThat(index.search("cho", 10).total()).isEqualTo(5);
+		assertThat(index.search("choc", 10).ids()).containsExactly(2, 3, 5);
+		assertThat(index.search("tableta choco", 10).ids()).containsExactly(2);
+		// Menos de tres letras: solo término exacto.
+		assertThat(index.search("ch", 10).ids()).isEmpty();
+		assertThat(index.search("chx", 10).ids()).isEmpty();
+	}
+
+	@Test
+	void updatesReplaceAndInactiveProductsLeaveTheIndex() {
+		Producto producto = index(1, "Arroz grado", "bolsa");
+		producto.setNombre("Fideos");
+		index.indexAfterCommit(producto);
+
+		assertThat(index.search("arroz", 10).ids()).isEmpty();
+		assertThat(index.search("fideos", 10).ids()).containsExactly(1);
+
+		ReflectionTestUtils.setField(producto, "active", false);
+		index.indexAfterCommit(producto);
+		assertThat(index.search("fideos", 10).ids()).isEmpty();
+		assertThat(index.size()).isZero();
+	}
+
+	@Test
+	void olderSnapshotArrivingLateIsIgnored() {
+		Producto v1 = producto(7, "Arroz grado", 1);
+		Producto v2 = producto(7, "Fideos largos", 2);
+
+		// Callbacks de commit en orden inverso al de los commits.
+		index.indexAfterCommit(v2);
+		index.indexAfterCommit(v1);
+
+		assertThat(index.search("fideos", 10).ids()).containsExactly(7);
+		assertThat(index.search("arroz", 10).ids()).isEmpty();
+
+		// Una desactivación más nueva tampoco se deshace con un snapshot viejo.
+		Producto v3 = producto(7, "Fideos largos", 3);
+		ReflectionTestUtils.setField(v3, "active", false);
+		index.indexAfterCommit(v3);
+		index.indexAfterCommit(v2);
+
+		assertThat(index.search("fideos", 10).ids()).isEmpty();
+		assertThat(index.size()).isZero();
+	}
+
+	private static Producto producto(int id, String nombre, long version) {
+		Producto producto = new Producto(nombre, "bolsa", 1, 10);
+		ReflectionTestUtils.setField(producto, "id", id);
+		ReflectionTestUtils.setField(producto, "version", version);
+		return producto;
+	}
+
+	private Producto index(int id, String nombre, String descripcion) {
+		Producto producto = new Producto(nombre, descripcion, 1, 10);
+		ReflectionTestUtils.setField(producto, "id", id);
+		index.indexAfterCommit(producto);
+		return producto;
+	}
+}
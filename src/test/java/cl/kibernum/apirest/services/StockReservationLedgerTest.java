@@ -0,0 +1,192 @@
+package cl.kibernum.apirest.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import cl.kibernum.apirest.config.CatalogProperties;
+import cl.kibernum.apirest.dto.ReservaDto;
+import cl.kibernum.apirest.exception.InsufficientStockException;
+import cl.kibernum.apirest.exception.ResourceNotFoundException;
+import cl.kibernum.apirest.repositories.ProductoRepository;
+
+class StockReservationLedgerTest {
+
+	private final Map<Integer, Integer> dbStock = new HashMap<>();
+	private ProductoRepository repo;
+	private ProductoRangeIndex rangeIndex;
+
+	@BeforeEach
+	void setUp() {
+		repo = mock(ProductoRepository.class);
+		rangeIndex = mock(ProductoRangeIndex.class);
+		when(repo.findStockByIdIn(anyCollection())).thenAnswer(inv -> {
+			List<Object[]> rows = new ArrayList<>();
+			for (Integer id : inv.<Collection<Integer>>getArgument(0)) {
+				if (dbStock.containsKey(id)) {
+					rows.add(new Object[] { id, dbStock.get(id), true });
+				}
+			}
+			return rows;
+		});
+		// Mismo UPDATE condicional que la consulta real: solo aplica si el stock no queda negativo.
+		when(repo.adjustStock(anyInt(), anyInt(), anyLong())).thenAnswer(inv -> {
+			int id = inv.getArgument(0);
+			int delta = inv.getArgument(1);
+			Integer current = dbStock.get(id);
+			if (current == null || current + delta < 0) {
+				return 0;
+			}
+			dbStock.put(id, current + delta);
+			return 1;
+		});
+	}
+
+	@Test
+	void reserveHoldsStockUntilReleased() {
+		dbStock.put(1, 5);
+		StockReservationLedger ledger = ledger(Duration.ofMinutes(10));
+
+		ReservaDto reserva = ledger.reserve(1, 3);
+
+		assertThat(ledger.availability(1).getDisponible()).isEqualTo(2);
+		assertThat(ledger.availability(1).getReservado()).isEqualTo(3);
+		assertThatThrownBy(() -> ledger.reserve(1, 3)).isInstanceOf(InsufficientStockException.class);
+
+		ledger.release(reserva.getId());
+		assertThat(ledger.availability(1).getDisponible()).isEqualTo(5);
+		assertThatThrownBy(() -> ledger.release(reserva.getId())).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	@Test
+	void unknownProductIsNotFound() {
+		StockReservationLedger ledger = ledger(Duration.ofMinutes(10));
+
+		assertThatThrownBy(() -> ledger.reserve(99, 1)).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	@Test
+	void confirmedUnitsAreWrittenOnFlush() {
+		dbStock.put(1, 5);
+		StockReservationLedger ledger = ledger(Duration.ofMinutes(10));
+
+		ledger.confirm(ledger.reserve(1, 2).getId());
+		assertThat(ledger.availability(1).getDisponible()).isEqualTo(3);
+		assertThat(dbStock.get(1)).isEqualTo(5);
+
+		ledger.flush();
+
+		assertThat(dbStock.get(1)).isEqualTo(3);
+		assertThat(ledger.availability(1).getStock()).isEqualTo(3);
+		assertThat(ledger.availability(1).getDisponible()).isEqualTo(3);
+		verify(rangeIndex).refreshStockAfterCommit(1);
+
+		// Nada pendiente: el siguiente flush no vuelve a escribir.
+		ledger.flush();
+		verify(repo, times(1)).adjustStock(anyInt(), anyInt(), anyLong());
+	}
+
+	@Test
+	void expiredReservationsAreReleased() {
+		dbStock.put(1, 5);
+		StockReservationLedger ledger = ledger(Duration.ZERO);
+
+		ReservaDto reserva = ledger.reserve(1, 4);
+		ledger.expireReservations();
+
+		assertThat(ledger.activeReservations()).isZero();
+		assertThat(ledger.availability(1).getDisponible()).isEqualTo(5);
+		assertThatThrownBy(() -> ledger.confirm(reserva.getId())).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	@Test
+	void confirmingAnExpiredReservationFails() {
+		dbStock.put(1, 5);
+		StockReservationLedger ledger = ledger(Duration.ZERO);
+
+		ReservaDto reserva = ledger.reserve(1, 4);
+
+		assertThatThrownBy(() -> ledger.confirm(reserva.getId()))
+				.isInstanceOf(ResourceNotFoundException.class)
+				.hasMessage("Reserva expirada");
+		assertThat(ledger.availability(1).getDisponible()).isEqualTo(5);
+	}
+
+	@Test
+	void flushKeepsAndRetriesUnitsTheDatabaseStockNoLongerCovers() {
+		dbStock.put(1, 5);
+		StockReservationLedger ledger = ledger(Duration.ofMinutes(10));
+		ledger.confirm(ledger.reserve(1, 4).getId());
+
+		// Otra vía (PATCH /stock, carga) deja la base con menos de lo confirmado.
+		dbStock.put(1, 2);
+		ledger.flush();
+
+		assertThat(dbStock.get(1)).isEqualTo(2);
+		assertThat(ledger.unsettledUnits()).isEqualTo(4);
+		assertThat(ledger.availability(1).getStock()).isEqualTo(-2);
+		assertThatThrownBy(() -> ledger.reserve(1, 1)).isInstanceOf(InsufficientStockException.class);
+		verify(rangeIndex, never()).refreshStockAfterCommit(anyInt());
+
+		// La venta no se pierde: se reintenta hasta que la base vuelve a tener stock.
+		ledger.flush();
+		verify(repo, times(2)).adjustStock(anyInt(), anyInt(), anyLong());
+		dbStock.put(1, 10);
+		ledger.flush();
+
+		assertThat(dbStock.get(1)).isEqualTo(6);
+		assertThat(ledger.unsettledUnits()).isZero();
+		assertThat(ledger.availability(1).getDisponible()).isEqualTo(6);
+		verify(rangeIndex).refreshStockAfterCommit(1);
+	}
+
+	@Test
+	void reconcileWaitsForARunningFlush() throws Exception {
+		dbStock.put(1, 5);
+		StockReservationLedger ledger = ledger(Duration.ofMinutes(10));
+		ledger.confirm(ledger.reserve(1, 2).getId());
+
+		// La reconciliación lee el stock (5) y, antes de escribirlo en el ledger, llega un flush que descuenta 2.
+		Thread[] flusher = new Thread[1];
+		when(repo.streamAllStock()).thenAnswer(inv -> {
+			Object[] row = { 1, dbStock.get(1), true };
+			flusher[0] = Thread.ofPlatform().start(ledger::flush);
+			flusher[0].join(200);
+			assertThat(flusher[0].isAlive()).as("flush espera a la reconciliación").isTrue();
+			return Stream.<Object[]>of(row);
+		});
+
+		ledger.reconcile();
+		flusher[0].join();
+
+		assertThat(dbStock.get(1)).isEqualTo(3);
+		assertThat(ledger.availability(1).getStock()).isEqualTo(3);
+		assertThat(ledger.availability(1).getDisponible()).isEqualTo(3);
+	}
+
+	private StockReservationLedger ledger(Duration ttl) {
+		CatalogProperties props = new CatalogProperties();
+		props.getReservations().setTtl(ttl);
+		return new StockReservationLedger(repo, mock(ProductoCache.class), mock(CatalogRevision.class), rangeIndex,
+				mock(PlatformTransactionManager.class), props);
+	}
+}